@@ -0,0 +1,124 @@
+package net.runelite.client.plugins.gotr;
+
+import net.runelite.api.Animation;
+import net.runelite.api.DynamicObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.Renderable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Which of the twelve guardians are present and active, as bitmasks indexed like
+ * {@link GuardianInfo#ALL} (bit 0 is Air, bit 11 Blood).
+ *
+ * A guardian is active while it plays the active animation or while its talisman is carried.
+ * Object animations raise no event, so {@link #tick()} reads each present guardian's animation
+ * once; spawns and inventory changes update the masks as they happen. Client thread only.
+ */
+class GotrActiveGuardians {
+    static final int ACTIVE_ANIMATION = 9363;
+
+    private final GameObject[] guardians = new GameObject[GuardianInfo.COUNT];
+    private int present;
+    private int animating;
+    private int talismans;
+    private int active;
+    private List<GameObject> activeList = Collections.emptyList();
+    private List<GameObject> presentList = Collections.emptyList();
+
+    void spawned(GameObject guardian) {
+        final int i = GuardianInfo.indexOfGameObject(guardian.getId());
+        if (i < 0) return;
+        guardians[i] = guardian;
+        present |= 1 << i;
+        animating &= ~(1 << i);
+        update();
+    }
+
+    void despawned(GameObject guardian) {
+        final int i = GuardianInfo.indexOfGameObject(guardian.getId());
+        if (i < 0 || guardians[i] != guardian) return;
+        guardians[i] = null;
+        present &= ~(1 << i);
+        animating &= ~(1 << i);
+        update();
+    }
+
+    void clear() {
+        Arrays.fill(guardians, null);
+        present = 0;
+        animating = 0;
+        update();
+    }
+
+    /** Guardians whose talismans are in the inventory, as a mask. */
+    void setTalismans(int mask) {
+        if (mask == talismans) return;
+        talismans = mask;
+        update();
+    }
+
+    void tick() {
+        int mask = 0;
+        for (int bits = present; bits != 0; bits &= bits - 1) {
+            final int i = Integer.numberOfTrailingZeros(bits);
+            final Renderable r = guardians[i].getRenderable();
+            final Animation anim = r instanceof DynamicObject ? ((DynamicObject) r).getAnimation() : null;
+            if (anim != null && anim.getId() == ACTIVE_ANIMATION) {
+                mask |= 1 << i;
+            }
+        }
+        if (mask != animating) {
+            animating = mask;
+            update();
+        }
+    }
+
+    int mask() {
+        return active;
+    }
+
+    boolean isActive(int index) {
+        return (active & (1 << index)) != 0;
+    }
+
+    /** Active guardians in {@link GuardianInfo#ALL} order; the same list until the mask changes. */
+    List<GameObject> active() {
+        return activeList;
+    }
+
+    List<GameObject> present() {
+        return presentList;
+    }
+
+    private void update() {
+        active = (animating | talismans) & present;
+        if (!matches(activeList, active)) {
+            activeList = list(active);
+        }
+        if (!matches(presentList, present)) {
+            presentList = list(present);
+        }
+    }
+
+    private boolean matches(List<GameObject> list, int mask) {
+        if (list.size() != Integer.bitCount(mask)) return false;
+        int n = 0;
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            if (list.get(n++) != guardians[Integer.numberOfTrailingZeros(bits)]) return false;
+        }
+        return true;
+    }
+
+    private List<GameObject> list(int mask) {
+        if (mask == 0) return Collections.emptyList();
+        final List<GameObject> out = new ArrayList<>(Integer.bitCount(mask));
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            out.add(guardians[Integer.numberOfTrailingZeros(bits)]);
+        }
+        return Collections.unmodifiableList(out);
+    }
+}
@@ -0,0 +1,502 @@
+package net.runelite.client.plugins.gotr;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import lombok.Value;
+import net.runelite.client.server.InvSlotPoint;
+import net.runelite.client.server.TargetPoint;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-layout binary encoding of {@link GotrPayload}, big-endian.
+ *
+ * header   : magic "GOTR", u8 version, i64 seq, i64 ts, u16 flags
+ * scalars  : i32 guardianEnergy, u8 pointBalance, u16 activeGuardianMask, 4 x i64 instants (epoch ms)
+ * strings  : u16 count, then u16 length + UTF-8 bytes; targets and slots refer to names by index
+ * targets  : u32 presence mask over {@link #SINGLE_TARGETS} order, then one record per set bit
+ * lists    : activeGuardians, cellTiles, bankTiles as u16 count + records
+ * inventory: u8 present, counts, colossal pouch, essence and talisman slots
+ * blobs    : player, menu, dialog as u32 length + JSON (their shape belongs to client.server)
+ *
+ * Nullable ints use {@link #NULL_INT}/{@link #NULL_SHORT} and decode back to null, missing lists a
+ * count of 0xFFFF.
+ */
+public final class GotrBinaryCodec {
+    public static final String CONTENT_TYPE = "application/x-gotr-binary";
+    public static final int MAGIC = 0x474F5452;
+    public static final int VERSION = 2;
+
+    static final int NULL_INT = Integer.MIN_VALUE;
+    static final short NULL_SHORT = Short.MIN_VALUE;
+    static final long NULL_LONG = Long.MIN_VALUE;
+    static final int NULL_REF = 0xFFFF;
+
+    static final String[] SINGLE_TARGETS = {
+            "hugeGuardian", "largeGuardian", "greatGuardian", "apprentice", "unchargedCellTable",
+            "depositPool", "catalyticEssencePile", "elementalEssencePile", "portal", "returnPortal",
+            "workbench", "barrier", "rubbleTop", "rubbleBottom", "currentAltar", "altarPortal",
+            "bankChest", "bankCloseButton", "bankFirstSlot"
+    };
+
+    private static final int F_LOGGED_IN = 1;
+    private static final int F_IN_MINIGAME = 1 << 1;
+    private static final int F_ANY_RUNES = 1 << 2;
+    private static final int F_ANY_ESSENCE = 1 << 3;
+    private static final int F_ANY_CHARGED_CELLS = 1 << 4;
+    private static final int F_ANY_STONES = 1 << 5;
+    private static final int F_FIRST_PORTAL = 1 << 6;
+    private static final int F_REWARD_RECEIVED = 1 << 7;
+    private static final int F_IN_MAIN_REGION = 1 << 8;
+    private static final int F_DORMANT = 1 << 9;
+
+    private static final int T_IN_MINIMAP = 1;
+    private static final int T_IN_CANVAS = 1 << 1;
+    private static final int T_HAS_BOX = 1 << 2;
+
+    private static final PointBalance[] BALANCES = PointBalance.values();
+
+    private GotrBinaryCodec() {}
+
+    public static byte[] encode(GotrPayload p, GotrJson json) {
+        final Map<String, Integer> strings = new HashMap<>();
+        final List<String> table = new ArrayList<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(2048);
+
+        try {
+            final DataOutputStream out = new DataOutputStream(body);
+            out.writeInt(orNull(p.getGuardianEnergy()));
+            out.writeByte(p.getPointBalance() == null ? 0xFF : p.getPointBalance().ordinal());
+            out.writeShort(p.getActiveGuardianMask());
+            writeInstant(out, p.getPortalSpawnTime());
+            writeInstant(out, p.getLastPortalDespawnTime());
+            writeInstant(out, p.getNextGameStart());
+            writeInstant(out, p.getGameStarted());
+
+            final TargetPoint[] singles = {
+                    p.getHugeGuardian(), p.getLargeGuardian(), p.getGreatGuardian(), p.getApprentice(),
+                    p.getUnchargedCellTable(), p.getDepositPool(), p.getCatalyticEssencePile(),
+                    p.getElementalEssencePile(), p.getPortal(), p.getReturnPortal(), p.getWorkbench(),
+                    p.getBarrier(), p.getRubbleTop(), p.getRubbleBottom(), p.getCurrentAltar(),
+                    p.getAltarPortal(), p.getBankChest(), p.getBankCloseButton(), p.getBankFirstSlot()
+            };
+            int mask = 0;
+            for (int i = 0; i < singles.length; i++) {
+                if (singles[i] != null) mask |= 1 << i;
+            }
+            out.writeInt(mask);
+            for (TargetPoint t : singles) {
+                if (t != null) writeTarget(out, t, strings, table);
+            }
+
+            writeTargets(out, p.getActiveGuardians(), strings, table);
+            writeTargets(out, p.getCellTiles(), strings, table);
+            writeTargets(out, p.getBankTiles(), strings, table);
+
+            writeInventory(out, p.getInv() instanceof GotrInvSummary ? (GotrInvSummary) p.getInv() : null, strings, table);
+
+            writeBlob(out, p.getPlayer() == null ? null : json.toBytes(json.toTree(p.getPlayer())));
+            writeBlob(out, p.getMenu() == null ? null : json.toBytes(json.toTree(p.getMenu())));
+            writeBlob(out, p.getDialog() == null ? null : json.toBytes(json.toTree(p.getDialog())));
+            out.flush();
+
+            final ByteArrayOutputStream frame = new ByteArrayOutputStream(body.size() + 256);
+            final DataOutputStream head = new DataOutputStream(frame);
+            head.writeInt(MAGIC);
+            head.writeByte(VERSION);
+            head.writeLong(p.getSeq());
+            head.writeLong(p.getTs());
+            head.writeShort(flags(p));
+            head.writeShort(table.size());
+            for (String s : table) {
+                final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                head.writeShort(b.length);
+                head.write(b);
+            }
+            head.flush();
+            body.writeTo(frame);
+            return frame.toByteArray();
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Frame decode(byte[] bytes) {
+        final ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a GOTR binary payload");
+        }
+        final int version = in.get() & 0xFF;
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("unsupported GOTR binary version " + version);
+        }
+
+        final long seq = in.getLong();
+        final long ts = in.getLong();
+        final int flags = in.getShort() & 0xFFFF;
+
+        final String[] table = new String[in.getShort() & 0xFFFF];
+        for (int i = 0; i < table.length; i++) {
+            final int len = in.getShort() & 0xFFFF;
+            table[i] = new String(bytes, in.position(), len, StandardCharsets.UTF_8);
+            in.position(in.position() + len);
+        }
+
+        final int energy = in.getInt();
+        final int balance = in.get() & 0xFF;
+        // version 1 frames (recorded sessions) predate the mask
+        final int activeGuardianMask = version >= 2 ? in.getShort() & 0xFFFF : 0;
+        final Instant portalSpawnTime = readInstant(in);
+        final Instant lastPortalDespawnTime = readInstant(in);
+        final Instant nextGameStart = readInstant(in);
+        final Instant gameStarted = readInstant(in);
+
+        final int mask = in.getInt();
+        final Target[] singles = new Target[SINGLE_TARGETS.length];
+        for (int i = 0; i < singles.length; i++) {
+            if ((mask & (1 << i)) != 0) singles[i] = readTarget(in, table);
+        }
+
+        final List<Target> activeGuardians = readTargets(in, table);
+        final List<Target> cellTiles = readTargets(in, table);
+        final List<Target> bankTiles = readTargets(in, table);
+        final Inventory inv = readInventory(in, table);
+
+        final JsonElement player = readBlob(in, bytes);
+        final JsonElement menu = readBlob(in, bytes);
+        final JsonElement dialog = readBlob(in, bytes);
+
+        return new Frame(
+                seq, ts,
+                (flags & F_LOGGED_IN) != 0,
+                (flags & F_IN_MINIGAME) != 0,
+                (flags & F_ANY_RUNES) != 0,
+                (flags & F_ANY_ESSENCE) != 0,
+                (flags & F_ANY_CHARGED_CELLS) != 0,
+                (flags & F_ANY_STONES) != 0,
+                (flags & F_FIRST_PORTAL) != 0,
+                (flags & F_REWARD_RECEIVED) != 0,
+                (flags & F_IN_MAIN_REGION) != 0,
+                (flags & F_DORMANT) != 0,
+                energy == NULL_INT ? null : energy,
+                balance < BALANCES.length ? BALANCES[balance] : null,
+                activeGuardianMask,
+                portalSpawnTime, lastPortalDespawnTime, nextGameStart, gameStarted,
+                singles, activeGuardians, cellTiles, bankTiles, inv,
+                player, menu, dialog
+        );
+    }
+
+    private static int flags(GotrPayload p) {
+        int f = 0;
+        if (p.isLoggedIn()) f |= F_LOGGED_IN;
+        if (p.isInMinigame()) f |= F_IN_MINIGAME;
+        if (p.isHasAnyRunes()) f |= F_ANY_RUNES;
+        if (p.isHasAnyGuardianEssence()) f |= F_ANY_ESSENCE;
+        if (p.isHasAnyChargedCells()) f |= F_ANY_CHARGED_CELLS;
+        if (p.isHasAnyStones()) f |= F_ANY_STONES;
+        if (p.isFirstPortal()) f |= F_FIRST_PORTAL;
+        if (p.isRewardReceived()) f |= F_REWARD_RECEIVED;
+        if (p.isInMainRegion()) f |= F_IN_MAIN_REGION;
+        if (p.isDormant()) f |= F_DORMANT;
+        return f;
+    }
+
+    private static int ref(String s, Map<String, Integer> strings, List<String> table) {
+        if (s == null) return NULL_REF;
+        return strings.computeIfAbsent(s, k -> {
+            table.add(k);
+            return table.size() - 1;
+        });
+    }
+
+    // Accepts both int and Integer getters on the client.server value types.
+    private static int orNull(Integer v) {
+        return v == null ? NULL_INT : v;
+    }
+
+    private static short shortOrNull(Integer v) {
+        return v == null ? NULL_SHORT : (short) Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, v));
+    }
+
+    private static Integer fromInt(int v) {
+        return v == NULL_INT ? null : v;
+    }
+
+    private static Integer fromShort(short v) {
+        return v == NULL_SHORT ? null : (int) v;
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant i) throws IOException {
+        out.writeLong(i == null ? NULL_LONG : i.toEpochMilli());
+    }
+
+    private static Instant readInstant(ByteBuffer in) {
+        final long v = in.getLong();
+        return v == NULL_LONG ? null : Instant.ofEpochMilli(v);
+    }
+
+    private static void writeTarget(DataOutputStream out, TargetPoint t, Map<String, Integer> strings, List<String> table) throws IOException {
+        final var box = t.getCanvasBox();
+        int f = 0;
+        if (t.isInMinimap()) f |= T_IN_MINIMAP;
+        if (t.isInCanvas()) f |= T_IN_CANVAS;
+        if (box != null) f |= T_HAS_BOX;
+
+        out.writeInt(t.getId());
+        out.writeShort(ref(t.getName(), strings, table));
+        out.writeByte(f);
+        out.writeInt(orNull(t.getWorldX()));
+        out.writeInt(orNull(t.getWorldY()));
+        out.writeByte(t.getPlane());
+        out.writeShort(shortOrNull(t.getSceneX()));
+        out.writeShort(shortOrNull(t.getSceneY()));
+        out.writeInt(orNull(t.getRegionId()));
+        out.writeShort(shortOrNull(t.getMinimapX()));
+        out.writeShort(shortOrNull(t.getMinimapY()));
+        out.writeShort(shortOrNull(t.getCanvasX()));
+        out.writeShort(shortOrNull(t.getCanvasY()));
+        if (box != null) {
+            out.writeShort(shortOrNull(box.getX()));
+            out.writeShort(shortOrNull(box.getY()));
+            out.writeShort(shortOrNull(box.getW()));
+            out.writeShort(shortOrNull(box.getH()));
+        }
+        out.writeShort(shortOrNull(t.getDistToPlayer()));
+    }
+
+    private static Target readTarget(ByteBuffer in, String[] table) {
+        final int id = in.getInt();
+        final int name = in.getShort() & 0xFFFF;
+        final int f = in.get() & 0xFF;
+        final Integer worldX = fromInt(in.getInt());
+        final Integer worldY = fromInt(in.getInt());
+        final int plane = in.get();
+        final Integer sceneX = fromShort(in.getShort());
+        final Integer sceneY = fromShort(in.getShort());
+        final Integer regionId = fromInt(in.getInt());
+        final Integer minimapX = fromShort(in.getShort());
+        final Integer minimapY = fromShort(in.getShort());
+        final Integer canvasX = fromShort(in.getShort());
+        final Integer canvasY = fromShort(in.getShort());
+        Box box = null;
+        if ((f & T_HAS_BOX) != 0) {
+            box = new Box(fromShort(in.getShort()), fromShort(in.getShort()), fromShort(in.getShort()), fromShort(in.getShort()));
+        }
+        final Integer dist = fromShort(in.getShort());
+        return new Target(id, name == NULL_REF ? null : table[name],
+                worldX, worldY, plane, sceneX, sceneY, regionId,
+                minimapX, minimapY, (f & T_IN_MINIMAP) != 0,
+                canvasX, canvasY, box, (f & T_IN_CANVAS) != 0, dist);
+    }
+
+    private static void writeTargets(DataOutputStream out, List<TargetPoint> targets, Map<String, Integer> strings, List<String> table) throws IOException {
+        if (targets == null) {
+            out.writeShort(NULL_REF);
+            return;
+        }
+        out.writeShort(targets.size());
+        for (TargetPoint t : targets) {
+            writeTarget(out, t, strings, table);
+        }
+    }
+
+    private static List<Target> readTargets(ByteBuffer in, String[] table) {
+        final int n = in.getShort() & 0xFFFF;
+        if (n == NULL_REF) return null;
+        final List<Target> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add(readTarget(in, table));
+        }
+        return list;
+    }
+
+    private static void writeSlot(DataOutputStream out, InvSlotPoint s, Map<String, Integer> strings, List<String> table) throws IOException {
+        out.writeInt(s.getItemId());
+        out.writeShort(ref(s.getName(), strings, table));
+        out.writeInt(s.getQty());
+        out.writeShort(shortOrNull(s.getCanvasX()));
+        out.writeShort(shortOrNull(s.getCanvasY()));
+    }
+
+    private static Slot readSlot(ByteBuffer in, String[] table) {
+        final int itemId = in.getInt();
+        final int name = in.getShort() & 0xFFFF;
+        final int qty = in.getInt();
+        return new Slot(itemId, name == NULL_REF ? null : table[name], qty, fromShort(in.getShort()), fromShort(in.getShort()));
+    }
+
+    private static void writeSlots(DataOutputStream out, List<InvSlotPoint> slots, Map<String, Integer> strings, List<String> table) throws IOException {
+        if (slots == null) {
+            out.writeShort(NULL_REF);
+            return;
+        }
+        out.writeShort(slots.size());
+        for (InvSlotPoint s : slots) {
+            writeSlot(out, s, strings, table);
+        }
+    }
+
+    private static List<Slot> readSlots(ByteBuffer in, String[] table) {
+        final int n = in.getShort() & 0xFFFF;
+        if (n == NULL_REF) return null;
+        final List<Slot> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add(readSlot(in, table));
+        }
+        return list;
+    }
+
+    private static void writeInventory(DataOutputStream out, GotrInvSummary inv, Map<String, Integer> strings, List<String> table) throws IOException {
+        if (inv == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(inv.isPouchDegraded() ? 3 : 1);
+        out.writeByte(inv.getEmptySlots());
+        out.writeInt(inv.getFragments());
+        out.writeInt(inv.getUnchargedCells());
+        out.writeInt(inv.getEssence());
+        out.writeInt(inv.getPearls());
+        out.writeInt(inv.getPouchEssence());
+        out.writeByte(inv.getColossalPouch() != null ? 1 : 0);
+        if (inv.getColossalPouch() != null) {
+            writeSlot(out, inv.getColossalPouch(), strings, table);
+        }
+        writeSlots(out, inv.getEssenceSlots(), strings, table);
+        writeSlots(out, inv.getTalismans(), strings, table);
+    }
+
+    private static Inventory readInventory(ByteBuffer in, String[] table) {
+        final int present = in.get() & 0xFF;
+        if (present == 0) return null;
+        final int emptySlots = in.get() & 0xFF;
+        final int fragments = in.getInt();
+        final int unchargedCells = in.getInt();
+        final int essence = in.getInt();
+        final int pearls = in.getInt();
+        final int pouchEssence = in.getInt();
+        final Slot colossal = in.get() != 0 ? readSlot(in, table) : null;
+        final List<Slot> essenceSlots = readSlots(in, table);
+        final List<Slot> talismans = readSlots(in, table);
+        return new Inventory(emptySlots, fragments, unchargedCells, essence, pearls, pouchEssence,
+                colossal, (present & 2) != 0, essenceSlots, talismans);
+    }
+
+    private static void writeBlob(DataOutputStream out, byte[] blob) throws IOException {
+        if (blob == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(blob.length);
+        out.write(blob);
+    }
+
+    private static JsonElement readBlob(ByteBuffer in, byte[] bytes) {
+        final int len = in.getInt();
+        if (len < 0) return null;
+        final String s = new String(bytes, in.position(), len, StandardCharsets.UTF_8);
+        in.position(in.position() + len);
+        return JsonParser.parseString(s);
+    }
+
+    @Value
+    public static class Frame {
+        long seq;
+        long ts;
+        boolean loggedIn;
+        boolean inMinigame;
+        boolean hasAnyRunes;
+        boolean hasAnyGuardianEssence;
+        boolean hasAnyChargedCells;
+        boolean hasAnyStones;
+        boolean firstPortal;
+        boolean rewardReceived;
+        boolean inMainRegion;
+        boolean dormant;
+        Integer guardianEnergy;
+        PointBalance pointBalance;
+        int activeGuardianMask;
+        Instant portalSpawnTime;
+        Instant lastPortalDespawnTime;
+        Instant nextGameStart;
+        Instant gameStarted;
+        Target[] singleTargets;   // indexed like SINGLE_TARGETS
+        List<Target> activeGuardians;
+        List<Target> cellTiles;
+        List<Target> bankTiles;
+        Inventory inv;
+        JsonElement player;
+        JsonElement menu;
+        JsonElement dialog;
+
+        public Target target(String name) {
+            for (int i = 0; i < SINGLE_TARGETS.length; i++) {
+                if (SINGLE_TARGETS[i].equals(name)) return singleTargets[i];
+            }
+            return null;
+        }
+    }
+
+    @Value
+    public static class Target {
+        int id;
+        String name;
+        Integer worldX;
+        Integer worldY;
+        int plane;
+        Integer sceneX;
+        Integer sceneY;
+        Integer regionId;
+        Integer minimapX;
+        Integer minimapY;
+        boolean inMinimap;
+        Integer canvasX;
+        Integer canvasY;
+        Box canvasBox;
+        boolean inCanvas;
+        Integer distToPlayer;
+    }
+
+    @Value
+    public static class Box {
+        Integer x;
+        Integer y;
+        Integer w;
+        Integer h;
+    }
+
+    @Value
+    public static class Slot {
+        int itemId;
+        String name;
+        int qty;
+        Integer canvasX;
+        Integer canvasY;
+    }
+
+    @Value
+    public static class Inventory {
+        int emptySlots;
+        int fragments;
+        int unchargedCells;
+        int essence;
+        int pearls;
+        int pouchEssence;
+        Slot colossalPouch;
+        boolean pouchDegraded;
+        List<Slot> essenceSlots;
+        List<Slot> talismans;
+    }
+}
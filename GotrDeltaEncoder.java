@@ -0,0 +1,119 @@
+package net.runelite.client.plugins.gotr;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Turns consecutive payload trees into delta frames.
+ *
+ * A frame is {"seq", "baseSeq", "keyframe", "data"}. For a keyframe, data is the whole payload.
+ * Otherwise data patches the frame with seq == baseSeq: changed members are present, removed
+ * members are JSON null, and a changed array is sent as {"@len": n, "@set": {"index": element}}.
+ * Consumers that see baseSeq != their last seq have missed a frame and should ask for a keyframe.
+ */
+class GotrDeltaEncoder {
+    static final String ARRAY_LENGTH = "@len";
+    static final String ARRAY_SET = "@set";
+
+    private final AtomicBoolean keyframeRequested = new AtomicBoolean(true);
+
+    private int keyframeInterval;
+    private int framesSinceKeyframe;
+    private JsonObject previous;
+    private long previousSeq;
+
+    GotrDeltaEncoder(int keyframeInterval) {
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    void setKeyframeInterval(int keyframeInterval) {
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    /** Safe to call from any thread; the next encoded frame will be a keyframe. */
+    void requestKeyframe() {
+        keyframeRequested.set(true);
+    }
+
+    void reset() {
+        previous = null;
+        previousSeq = 0;
+        framesSinceKeyframe = 0;
+        keyframeRequested.set(true);
+    }
+
+    JsonObject encode(long seq, JsonObject current) {
+        final boolean keyframe = previous == null
+                || keyframeRequested.getAndSet(false)
+                || ++framesSinceKeyframe >= keyframeInterval;
+
+        final JsonObject frame = new JsonObject();
+        frame.addProperty("seq", seq);
+        frame.addProperty("baseSeq", keyframe ? seq : previousSeq);
+        frame.addProperty("keyframe", keyframe);
+        if (keyframe) {
+            framesSinceKeyframe = 0;
+            frame.add("data", current);
+        } else {
+            frame.add("data", diffObject(previous, current));
+        }
+
+        previous = current;
+        previousSeq = seq;
+        return frame;
+    }
+
+    private static JsonObject diffObject(JsonObject before, JsonObject after) {
+        final JsonObject patch = new JsonObject();
+        for (Map.Entry<String, JsonElement> e : after.entrySet()) {
+            final JsonElement old = before.get(e.getKey());
+            final JsonElement now = e.getValue();
+            if (old == null) {
+                patch.add(e.getKey(), now);
+            } else if (!old.equals(now)) {
+                patch.add(e.getKey(), diff(old, now));
+            }
+        }
+        for (String key : before.keySet()) {
+            if (!after.has(key)) {
+                patch.add(key, JsonNull.INSTANCE);
+            }
+        }
+        return patch;
+    }
+
+    private static JsonElement diff(JsonElement before, JsonElement after) {
+        if (before.isJsonObject() && after.isJsonObject()) {
+            return diffObject(before.getAsJsonObject(), after.getAsJsonObject());
+        }
+        if (before.isJsonArray() && after.isJsonArray()) {
+            return diffArray(before.getAsJsonArray(), after.getAsJsonArray());
+        }
+        return after;
+    }
+
+    private static JsonElement diffArray(JsonArray before, JsonArray after) {
+        final JsonObject set = new JsonObject();
+        for (int i = 0; i < after.size(); i++) {
+            if (i >= before.size() || !before.get(i).equals(after.get(i))) {
+                set.add(Integer.toString(i), after.get(i));
+            }
+        }
+
+        // Replacing outright is smaller once most of the list changed.
+        if (set.size() * 2 > after.size()) {
+            return after;
+        }
+
+        final JsonObject patch = new JsonObject();
+        patch.add(ARRAY_LENGTH, new JsonPrimitive(after.size()));
+        patch.add(ARRAY_SET, set);
+        return patch;
+    }
+}
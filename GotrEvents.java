@@ -0,0 +1,135 @@
+package net.runelite.client.plugins.gotr;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.Item;
+import net.runelite.api.TileObject;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.widgets.Widget;
+
+import java.util.Collection;
+
+/**
+ * JSON shape of the raw events kept by {@link GotrSessionRecorder}. Every event has "e" set to
+ * one of the E_ constants; the other keys depend on the kind.
+ */
+final class GotrEvents {
+    static final String E_TICK = "tick";
+    static final String E_CHAT = "chat";
+    static final String E_INVENTORY = "inv";
+    static final String E_OBJECT_SPAWNED = "obj+";
+    static final String E_OBJECT_DESPAWNED = "obj-";
+    static final String E_NPC_SPAWNED = "npc+";
+    static final String E_NPC_DESPAWNED = "npc-";
+    static final String E_VARBITS = "varbits";
+    static final String E_GAME_STATE = "state";
+    static final String E_MENU_CLICK = "menu";
+
+    static final String KIND_GAME = "game";
+    static final String KIND_GROUND = "ground";
+    static final String KIND_WALL = "wall";
+    static final String KIND_DECORATIVE = "decorative";
+
+    private GotrEvents() {}
+
+    /** One per game tick: the HUD widget state and player tile onGameTick reads. */
+    static JsonObject tick(boolean inMinigame, boolean inMainRegion, WorldPoint player, Collection<GameObject> activeGuardians,
+                           Widget elementalRune, Widget catalyticRune, Widget guardianCount,
+                           Widget portalText, Widget guardianEnergy, Widget dialog) {
+        final JsonObject e = event(E_TICK);
+        e.addProperty("inMinigame", inMinigame);
+        e.addProperty("inMainRegion", inMainRegion);
+        if (player != null) {
+            e.addProperty("x", player.getX());
+            e.addProperty("y", player.getY());
+            e.addProperty("plane", player.getPlane());
+        }
+        // Object animations raise no event, so the guardians seen animating are stored per tick.
+        final JsonArray active = new JsonArray();
+        for (GameObject g : activeGuardians) {
+            active.add(g.getId());
+        }
+        e.add("activeGuardians", active);
+        if (elementalRune != null) e.addProperty("elementalSprite", elementalRune.getSpriteId());
+        if (catalyticRune != null) e.addProperty("catalyticSprite", catalyticRune.getSpriteId());
+        if (guardianCount != null) e.addProperty("guardianCount", guardianCount.getText());
+        if (portalText != null && !portalText.isHidden()) e.addProperty("portalText", portalText.getText());
+        if (guardianEnergy != null) e.addProperty("energyText", guardianEnergy.getText());
+        if (dialog != null) e.addProperty("dialogText", dialog.getText());
+        return e;
+    }
+
+    static JsonObject chat(String type, String message) {
+        final JsonObject e = event(E_CHAT);
+        e.addProperty("type", type);
+        e.addProperty("msg", message);
+        return e;
+    }
+
+    static JsonObject inventory(Item[] items) {
+        final JsonObject e = event(E_INVENTORY);
+        final JsonArray arr = new JsonArray();
+        for (Item it : items) {
+            final JsonArray slot = new JsonArray();
+            slot.add(it == null ? -1 : it.getId());
+            slot.add(it == null ? 0 : it.getQuantity());
+            arr.add(slot);
+        }
+        e.add("items", arr);
+        return e;
+    }
+
+    static JsonObject object(boolean spawned, String kind, TileObject object) {
+        final JsonObject e = event(spawned ? E_OBJECT_SPAWNED : E_OBJECT_DESPAWNED);
+        e.addProperty("kind", kind);
+        e.addProperty("id", object.getId());
+        final WorldPoint wp = object.getWorldLocation();
+        if (wp != null) {
+            e.addProperty("x", wp.getX());
+            e.addProperty("y", wp.getY());
+            e.addProperty("plane", wp.getPlane());
+        }
+        return e;
+    }
+
+    static JsonObject npc(boolean spawned, int id, String name, WorldPoint wp) {
+        final JsonObject e = event(spawned ? E_NPC_SPAWNED : E_NPC_DESPAWNED);
+        e.addProperty("id", id);
+        e.addProperty("name", name);
+        if (wp != null) {
+            e.addProperty("x", wp.getX());
+            e.addProperty("y", wp.getY());
+            e.addProperty("plane", wp.getPlane());
+        }
+        return e;
+    }
+
+    static JsonObject varbits(int elemental, int catalytic) {
+        final JsonObject e = event(E_VARBITS);
+        e.addProperty("elemental", elemental);
+        e.addProperty("catalytic", catalytic);
+        return e;
+    }
+
+    static JsonObject gameState(String state) {
+        final JsonObject e = event(E_GAME_STATE);
+        e.addProperty("state", state);
+        return e;
+    }
+
+    static JsonObject menuClick(int id, int actionId, int itemId, String option) {
+        final JsonObject e = event(E_MENU_CLICK);
+        e.addProperty("id", id);
+        e.addProperty("action", actionId);
+        e.addProperty("itemId", itemId);
+        e.addProperty("option", option);
+        return e;
+    }
+
+    private static JsonObject event(String kind) {
+        final JsonObject e = new JsonObject();
+        e.addProperty("e", kind);
+        return e;
+    }
+}
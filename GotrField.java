@@ -0,0 +1,87 @@
+package net.runelite.client.plugins.gotr;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The payload fields that cost real work to build (projection, widget or inventory scans).
+ * Scalar fields are always built and are not listed here.
+ */
+public enum GotrField {
+    ACTIVE_GUARDIANS("activeGuardians"),
+    CELL_TILES("cellTiles"),
+    HUGE_GUARDIAN("hugeGuardian"),
+    LARGE_GUARDIAN("largeGuardian"),
+    GREAT_GUARDIAN("greatGuardian"),
+    APPRENTICE("apprentice"),
+    UNCHARGED_CELL_TABLE("unchargedCellTable"),
+    DEPOSIT_POOL("depositPool"),
+    CATALYTIC_ESSENCE_PILE("catalyticEssencePile"),
+    ELEMENTAL_ESSENCE_PILE("elementalEssencePile"),
+    PORTAL("portal"),
+    RETURN_PORTAL("returnPortal"),
+    WORKBENCH("workbench"),
+    BARRIER("barrier"),
+    RUBBLE_TOP("rubbleTop"),
+    RUBBLE_BOTTOM("rubbleBottom"),
+    CURRENT_ALTAR("currentAltar"),
+    ALTAR_PORTAL("altarPortal"),
+    BANK_TILES("bankTiles"),
+    BANK_CHEST("bankChest"),
+    BANK_CLOSE_BUTTON("bankCloseButton"),
+    BANK_FIRST_SLOT("bankFirstSlot"),
+    INV("inv"),
+    PLAYER("player"),
+    MENU("menu"),
+    DIALOG("dialog");
+
+    public static final long ALL = (1L << values().length) - 1;
+    public static final long BANK = BANK_TILES.bit() | BANK_CHEST.bit() | BANK_CLOSE_BUTTON.bit() | BANK_FIRST_SLOT.bit();
+
+    private static final GotrField[] VALUES = values();
+    private static final Map<String, GotrField> BY_NAME = new HashMap<>();
+
+    static {
+        for (GotrField f : VALUES) {
+            BY_NAME.put(f.jsonName, f);
+        }
+    }
+
+    private final String jsonName;
+
+    GotrField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public boolean in(long mask) {
+        return (mask & bit()) != 0;
+    }
+
+    public static GotrField byJsonName(String name) {
+        return BY_NAME.get(name);
+    }
+
+    public static GotrField[] all() {
+        return VALUES;
+    }
+
+    /** Mask of the costly fields named in a comma separated list; unknown names are ignored. */
+    public static long parse(String csv) {
+        long mask = 0;
+        for (String name : csv.split(",")) {
+            final GotrField f = BY_NAME.get(name.trim());
+            if (f != null) {
+                mask |= f.bit();
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,47 @@
+package net.runelite.client.plugins.gotr;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Remembers which costly payload fields consumers asked for recently. Thread safe. */
+class GotrFieldDemand {
+    static final long WINDOW_MS = 5_000;
+    static final long IDLE_MS = 30_000;
+
+    private final AtomicLongArray lastRequested = new AtomicLongArray(GotrField.all().length);
+    private final AtomicLong lastAny = new AtomicLong();
+    private volatile Runnable wakeListener;
+
+    /** Runs on the requesting thread when a request arrives after IDLE_MS without any. */
+    void setWakeListener(Runnable wakeListener) {
+        this.wakeListener = wakeListener;
+    }
+
+    void touch(long mask) {
+        final long now = System.currentTimeMillis();
+        final Runnable wake = wakeListener;
+        if (now - lastAny.getAndSet(now) >= IDLE_MS && wake != null) {
+            wake.run();
+        }
+        for (GotrField f : GotrField.all()) {
+            if (f.in(mask)) {
+                lastRequested.set(f.ordinal(), now);
+            }
+        }
+    }
+
+    boolean isIdle() {
+        return System.currentTimeMillis() - lastAny.get() >= IDLE_MS;
+    }
+
+    long activeMask() {
+        final long cutoff = System.currentTimeMillis() - WINDOW_MS;
+        long mask = 0;
+        for (GotrField f : GotrField.all()) {
+            if (lastRequested.get(f.ordinal()) >= cutoff) {
+                mask |= f.bit();
+            }
+        }
+        return mask;
+    }
+}
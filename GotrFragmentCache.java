@@ -0,0 +1,109 @@
+package net.runelite.client.plugins.gotr;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.SerializedName;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes a payload one top-level field at a time, in Gson's field order, and keeps each
+ * field's tree and "name":value bytes until the field holds a different object. Sections that
+ * {@link GotrPayloadSections} handed back unchanged are therefore not encoded again.
+ *
+ * The cached objects are never mutated once they are in a payload. Payload worker only.
+ */
+class GotrFragmentCache {
+    private final Gson gson;
+    private final Field[] fields;
+    private final String[] names;
+    private final String[] prefixes;
+    private final Object[] values;
+    private final JsonElement[] trees;
+    private final byte[][] fragments;
+
+    GotrFragmentCache(Gson gson, Class<?> type) {
+        this.gson = gson;
+        final List<Field> found = new ArrayList<>();
+        // Gson writes a class's own fields before those it inherits
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                if ((f.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0 || f.isSynthetic()) continue;
+                f.setAccessible(true);
+                found.add(f);
+            }
+        }
+        fields = found.toArray(new Field[0]);
+        names = new String[fields.length];
+        prefixes = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            final SerializedName sn = fields[i].getAnnotation(SerializedName.class);
+            names[i] = sn != null ? sn.value() : fields[i].getName();
+            prefixes[i] = gson.toJson(names[i]) + ':';
+        }
+        values = new Object[fields.length];
+        trees = new JsonElement[fields.length];
+        fragments = new byte[fields.length][];
+    }
+
+    Encoded encode(Object payload) {
+        final JsonObject tree = new JsonObject();
+        final Map<String, byte[]> out = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length; i++) {
+            final Object value;
+            try {
+                value = fields[i].get(payload);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            if (value == null && !gson.serializeNulls()) {
+                values[i] = null;
+                continue;
+            }
+            if (trees[i] == null || !same(values[i], value)) {
+                trees[i] = value == null ? JsonNull.INSTANCE : gson.toJsonTree(value);
+                fragments[i] = (prefixes[i] + gson.toJson(trees[i])).getBytes(StandardCharsets.UTF_8);
+                values[i] = value;
+            }
+            tree.add(names[i], trees[i]);
+            out.put(names[i], fragments[i]);
+        }
+        return new Encoded(tree, Collections.unmodifiableMap(out));
+    }
+
+    void clear() {
+        Arrays.fill(values, null);
+        Arrays.fill(trees, null);
+        Arrays.fill(fragments, null);
+    }
+
+    // Immutable values compare by equality; everything else must be the very same instance.
+    private static boolean same(Object before, Object after) {
+        if (before == after) return true;
+        if (before == null || after == null) return false;
+        final boolean value = after instanceof String || after instanceof Number || after instanceof Boolean
+                || after instanceof Character || after instanceof Enum || after instanceof Instant;
+        return value && after.equals(before);
+    }
+
+    static final class Encoded {
+        final JsonObject tree;
+        final Map<String, byte[]> fragments;
+
+        Encoded(JsonObject tree, Map<String, byte[]> fragments) {
+            this.tree = tree;
+            this.fragments = fragments;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package net.runelite.client.plugins.gotr;
+
+import net.runelite.api.Client;
+import net.runelite.api.widgets.Widget;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Handles to the minigame HUD and dialog widgets, resolved once per interface load instead of
+ * looked up every tick and frame, with the text, sprite and visibility last seen on each.
+ *
+ * {@link #poll(Client)} returns a mask, bit {@code 1 << widget}, of the widgets that changed
+ * since the previous poll, so the plugin only parses what moved. A load, close or
+ * {@link #invalidate()} re-resolves every handle and reports all of them changed. Client thread
+ * only.
+ */
+class GotrHudWidgets {
+    static final int PARENT = 0;
+    static final int ELEMENTAL_RUNE = 1;
+    static final int CATALYTIC_RUNE = 2;
+    static final int GUARDIAN_COUNT = 3;
+    static final int PORTAL = 4;
+    static final int PORTAL_TEXT = 5;
+    static final int GUARDIAN_ENERGY = 6;
+    static final int DIALOG = 7;
+    static final int COUNT = 8;
+
+    static final int PARENT_WIDGET_ID = 48889858;
+    static final int CATALYTIC_RUNE_WIDGET_ID = 48889876;
+    static final int ELEMENTAL_RUNE_WIDGET_ID = 48889879;
+    static final int GUARDIAN_COUNT_WIDGET_ID = 48889886;
+    static final int PORTAL_WIDGET_ID = 48889882;
+    static final int PORTAL_TEXT_WIDGET_ID = 48889884;
+    static final int GUARDIAN_ENERGY_WIDGET_ID = 48889874;
+    static final int DIALOG_WIDGET_GROUP = 229;
+    static final int DIALOG_WIDGET_MESSAGE = 1;
+
+    private static final int HUD_GROUP = PARENT_WIDGET_ID >>> 16;
+    private static final int ALL = (1 << COUNT) - 1;
+
+    // component ids, indexed like the constants above
+    private static final int[] COMPONENTS = {
+            PARENT_WIDGET_ID,
+            ELEMENTAL_RUNE_WIDGET_ID,
+            CATALYTIC_RUNE_WIDGET_ID,
+            GUARDIAN_COUNT_WIDGET_ID,
+            PORTAL_WIDGET_ID,
+            PORTAL_TEXT_WIDGET_ID,
+            GUARDIAN_ENERGY_WIDGET_ID,
+            DIALOG_WIDGET_GROUP << 16 | DIALOG_WIDGET_MESSAGE,
+    };
+
+    private final Widget[] widgets = new Widget[COUNT];
+    private final String[] texts = new String[COUNT];
+    private final int[] sprites = new int[COUNT];
+    private final boolean[] hidden = new boolean[COUNT];
+    private boolean stale = true;
+    private int pending;
+
+    GotrHudWidgets() {
+        Arrays.fill(sprites, -1);
+        Arrays.fill(hidden, true);
+    }
+
+    void loaded(int groupId) {
+        if (groupId == HUD_GROUP || groupId == DIALOG_WIDGET_GROUP) {
+            stale = true;
+        }
+    }
+
+    void closed(int groupId) {
+        loaded(groupId);
+    }
+
+    void invalidate() {
+        stale = true;
+    }
+
+    /** The widget, or null while its interface is not loaded. */
+    Widget get(Client client, int widget) {
+        resolve(client);
+        return widgets[widget];
+    }
+
+    /** Text as of the last poll. */
+    String text(int widget) {
+        return texts[widget];
+    }
+
+    int poll(Client client) {
+        resolve(client);
+        int changed = pending;
+        pending = 0;
+        for (int i = 0; i < COUNT; i++) {
+            final Widget w = widgets[i];
+            final String text = w != null ? w.getText() : null;
+            final int sprite = w != null ? w.getSpriteId() : -1;
+            final boolean hid = w == null || w.isHidden();
+            if (sprite != sprites[i] || hid != hidden[i] || !Objects.equals(text, texts[i])) {
+                texts[i] = text;
+                sprites[i] = sprite;
+                hidden[i] = hid;
+                changed |= 1 << i;
+            }
+        }
+        return changed;
+    }
+
+    static boolean changed(int mask, int widget) {
+        return (mask & (1 << widget)) != 0;
+    }
+
+    private void resolve(Client client) {
+        if (!stale) return;
+        stale = false;
+        for (int i = 0; i < COUNT; i++) {
+            widgets[i] = client.getWidget(COMPONENTS[i]);
+        }
+        pending = ALL;
+    }
+}
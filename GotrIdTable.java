@@ -0,0 +1,92 @@
+package net.runelite.client.plugins.gotr;
+
+import java.util.Arrays;
+
+/**
+ * Immutable open-addressed map from game ids to int values, for lookups on hot event paths
+ * without boxing. Absent ids read as {@link #NONE}; most misses end on the first probe because
+ * the table is kept at most a quarter full.
+ */
+final class GotrIdTable {
+    static final int NONE = 0;
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private final int[] keys;
+    private final int[] values;
+    private final int mask;
+
+    private GotrIdTable(int[] keys, int[] values) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+    }
+
+    int get(int id) {
+        for (int i = slot(id, mask); ; i = (i + 1) & mask) {
+            final int k = keys[i];
+            if (k == id) return values[i];
+            if (k == EMPTY) return NONE;
+        }
+    }
+
+    boolean contains(int id) {
+        return get(id) != NONE;
+    }
+
+    private static int slot(int id, int mask) {
+        return (id * 0x9E3779B9 >>> 16) & mask;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private int[] ids = new int[16];
+        private int[] vals = new int[16];
+        private int size;
+
+        /** ORs value into whatever id already maps to, so one id can carry several flags. */
+        Builder or(int id, int value) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    vals[i] |= value;
+                    return this;
+                }
+            }
+            return put(id, value);
+        }
+
+        /** Maps id to value; the first mapping of an id wins. */
+        Builder put(int id, int value) {
+            if (id == EMPTY || value == NONE) throw new IllegalArgumentException("id " + id + " value " + value);
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) return this;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                vals = Arrays.copyOf(vals, size * 2);
+            }
+            ids[size] = id;
+            vals[size] = value;
+            size++;
+            return this;
+        }
+
+        GotrIdTable build() {
+            final int capacity = Integer.highestOneBit(Math.max(4, size * 4) - 1) << 1;
+            final int mask = capacity - 1;
+            final int[] keys = new int[capacity];
+            final int[] values = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            for (int n = 0; n < size; n++) {
+                int i = slot(ids[n], mask);
+                while (keys[i] != EMPTY) i = (i + 1) & mask;
+                keys[i] = ids[n];
+                values[i] = vals[n];
+            }
+            return new GotrIdTable(keys, values);
+        }
+    }
+}
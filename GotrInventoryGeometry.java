@@ -0,0 +1,169 @@
+package net.runelite.client.plugins.gotr;
+
+import net.runelite.api.Client;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetInfo;
+
+import java.awt.Canvas;
+import java.awt.IllegalComponentStateException;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.HierarchyBoundsAdapter;
+import java.awt.event.HierarchyEvent;
+
+/**
+ * Screen position of the canvas and the canvas-space centers of the 28 inventory slots, so
+ * the inventory summary does not take the AWT tree lock or walk the slot widgets every tick.
+ *
+ * The origin is re-read only after the canvas or one of its ancestors moved or resized, which
+ * the AWT listeners flag from the event thread. Slot centers are re-read after
+ * {@link #layoutChanged()}, called when widgets load, the canvas is resized or the client
+ * switches resizable mode. {@link #version()} moves whenever either actually changed.
+ * Client thread only, apart from the listeners.
+ */
+class GotrInventoryGeometry {
+    static final int SLOTS = 28;
+
+    private final Listener listener = new Listener();
+    private Canvas canvas;
+    private volatile boolean originStale = true;
+    private boolean layoutStale = true;
+
+    private Point origin;
+    private final int[] centerX = new int[SLOTS];
+    private final int[] centerY = new int[SLOTS];
+    private final boolean[] present = new boolean[SLOTS];
+    private int version;
+
+    void layoutChanged() {
+        layoutStale = true;
+    }
+
+    /** Re-reads whatever was flagged stale; returns the version afterwards. */
+    int refresh(Client client) {
+        final Canvas c = client.getCanvas();
+        if (c != canvas) {
+            detach();
+            canvas = c;
+            if (c != null) {
+                c.addComponentListener(listener);
+                c.addHierarchyBoundsListener(listener);
+            }
+            originStale = true;
+            layoutStale = true;
+        }
+        if (originStale) {
+            readOrigin();
+        }
+        if (layoutStale) {
+            readLayout(client);
+        }
+        return version;
+    }
+
+    int version() {
+        return version;
+    }
+
+    /** Canvas origin on screen, or null while the canvas is not showing. */
+    Point origin() {
+        return origin;
+    }
+
+    boolean hasSlot(int slot) {
+        return present[slot];
+    }
+
+    int centerX(int slot) {
+        return centerX[slot];
+    }
+
+    int centerY(int slot) {
+        return centerY[slot];
+    }
+
+    void detach() {
+        if (canvas != null) {
+            canvas.removeComponentListener(listener);
+            canvas.removeHierarchyBoundsListener(listener);
+            canvas = null;
+        }
+        originStale = true;
+        layoutStale = true;
+    }
+
+    private void readOrigin() {
+        // cleared first so a move during the read flags it again
+        originStale = false;
+        Point p = null;
+        try {
+            p = canvas != null ? canvas.getLocationOnScreen() : null;
+        } catch (IllegalComponentStateException ignored) {
+            // not showing yet; try again next time
+        }
+        if (p == null) {
+            originStale = true;
+        }
+        if (p == null ? origin != null : !p.equals(origin)) {
+            origin = p;
+            version++;
+        }
+    }
+
+    private void readLayout(Client client) {
+        final Widget inv = client.getWidget(WidgetInfo.INVENTORY);
+        final Widget[] children = inv != null ? inv.getChildren() : null;
+        // without the inventory every slot reads as absent; its WidgetLoaded flags the layout again
+        layoutStale = false;
+        boolean changed = false;
+        for (int i = 0; i < SLOTS; i++) {
+            final Rectangle rb = children != null && i < children.length && children[i] != null ? children[i].getBounds() : null;
+            final boolean has = rb != null && rb.width > 0 && rb.height > 0;
+            final int x = has ? rb.x + rb.width / 2 : 0;
+            final int y = has ? rb.y + rb.height / 2 : 0;
+            if (has != present[i] || x != centerX[i] || y != centerY[i]) {
+                present[i] = has;
+                centerX[i] = x;
+                centerY[i] = y;
+                changed = true;
+            }
+        }
+        if (changed) {
+            version++;
+        }
+    }
+
+    private final class Listener extends HierarchyBoundsAdapter implements ComponentListener {
+        @Override
+        public void ancestorMoved(HierarchyEvent e) {
+            originStale = true;
+        }
+
+        @Override
+        public void ancestorResized(HierarchyEvent e) {
+            originStale = true;
+        }
+
+        @Override
+        public void componentMoved(ComponentEvent e) {
+            originStale = true;
+        }
+
+        @Override
+        public void componentResized(ComponentEvent e) {
+            originStale = true;
+        }
+
+        @Override
+        public void componentShown(ComponentEvent e) {
+            originStale = true;
+        }
+
+        @Override
+        public void componentHidden(ComponentEvent e) {
+            originStale = true;
+        }
+    }
+}
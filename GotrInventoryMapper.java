@@ -7,112 +7,162 @@ import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.server.InvSlotPoint;
-import net.runelite.client.server.TargetPoint;
-import net.runelite.client.server.TargetPointMapper;
 
-import java.awt.Rectangle;
+import java.awt.Point;
 import java.util.*;
-import java.util.regex.Pattern;
 
+/**
+ * Keeps the {@link GotrInvSummary} up to date from inventory container changes. Each change is
+ * diffed slot by slot and only the slots that moved adjust the running totals; the immutable
+ * summary is rebuilt when a slot, the tracked pouch essence or the inventory's on-screen
+ * geometry ({@link GotrInventoryGeometry}) changed, and handed back as is otherwise.
+ * Client thread only.
+ */
 @Slf4j
-public final class GotrInventoryMapper {
-    private GotrInventoryMapper() {}
-
-    // If you later prefer hard IDs, swap these name checks for ID sets.
-    private static final Pattern TALISMAN_NAME = Pattern.compile("(?i)\\btalisman\\b");
-    private static final String NAME_FRAGMENTS = "Guardian fragments";
-    private static final String NAME_CELLS     = "Uncharged cell";
-    private static final String NAME_ESSENCE   = "Guardian essence";
-    private static final String NAME_POUCH     = "Colossal pouch";
-    private static final String NAME_PEARLS    = "Abyssal pearls";
+final class GotrInventoryMapper {
+    private static final int SLOTS = GotrInventoryGeometry.SLOTS;
 
+    private static final int ID_UNCHARGED_CELL          = 26882;
     private static final int ID_COLOSSAL_POUCH_NEW      = 26784;
     private static final int ID_COLOSSAL_POUCH_DEGRADED = 26786;
 
-    public static GotrInvSummary capture(
-            @NonNull Client client,
-            @NonNull ItemManager itemManager,
-            int pouchEssenceTracked
-    ) {
-        // Base counts via ItemContainer (fast)
-        final ItemContainer inv = client.getItemContainer(InventoryID.INVENTORY);
-        int empty = 28;
-        int fragments = 0, cells = 0, essence = 0, pearls = 0;
-        boolean colossalDegraded = false;
-
-        if (inv != null) {
-            final Item[] items = inv.getItems();
-            empty = 28 - (int)Arrays.stream(items).filter(it -> it != null && it.getId() > 0).count();
-
-            for (Item it : items) {
-                if (it == null || it.getId() <= 0) continue;
-                ItemComposition comp = safeComp(itemManager, it.getId());
-                String name = comp != null ? comp.getName() : "";
-                int qty = it.getQuantity();
-
-                if (NAME_FRAGMENTS.equalsIgnoreCase(name)) fragments += qty;
-                else if (NAME_CELLS.equalsIgnoreCase(name)) cells += qty;
-                else if (NAME_ESSENCE.equalsIgnoreCase(name)) essence += qty;
-                else if (NAME_PEARLS.equalsIgnoreCase(name)) pearls += qty;
-
-                int id = it.getId();
-                if (isColossalPouchId(id)) {
-                    colossalDegraded = isColossalDegradedId(id);
-                }
-            }
+    private static final int C_FRAGMENTS = 1;
+    private static final int C_CELLS     = 1 << 1;
+    private static final int C_ESSENCE   = 1 << 2;
+    private static final int C_PEARLS    = 1 << 3;
+    private static final int C_POUCH     = 1 << 4;
+    private static final int C_TALISMAN  = 1 << 5;
+    // slots that get a clickable point in the summary
+    private static final int C_POINTED   = C_ESSENCE | C_POUCH | C_TALISMAN;
+
+    // Every item the summary cares about; anything else classifies as NONE.
+    private static final int[] CLASSIFIED_IDS = classifiedIds();
+    private static final GotrIdTable CLASSES = classes();
+    // classified item id -> position in CLASSIFIED_IDS + 1
+    private static final GotrIdTable NAME_SLOTS = nameSlots();
+    // Names resolved the first time each classified item is seen.
+    private static final String[] NAMES = new String[CLASSIFIED_IDS.length];
+
+    private final GotrInventoryGeometry geometry = new GotrInventoryGeometry();
+    private final int[] ids = new int[SLOTS];
+    private final int[] quantities = new int[SLOTS];
+    private final int[] classes = new int[SLOTS];
+    private boolean seeded;
+
+    private int occupied, fragments, cells, essence, pearls, degradedPouches;
+    private boolean dirty = true;
+
+    private GotrInvSummary summary;
+    private int summaryPouchEssence;
+    private int summaryGeometry;
+    private boolean summaryHidden;
+
+    GotrInventoryMapper() {
+        Arrays.fill(ids, -1);
+    }
+
+    /** Applies a container change; only slots whose item or quantity differ are touched. */
+    void update(Item[] items) {
+        seeded = true;
+        for (int i = 0; i < SLOTS; i++) {
+            final Item it = i < items.length ? items[i] : null;
+            final int id = it == null || it.getId() <= 0 ? -1 : it.getId();
+            final int qty = id < 0 ? 0 : it.getQuantity();
+            if (id == ids[i] && qty == quantities[i]) continue;
+            account(i, -1);
+            ids[i] = id;
+            quantities[i] = qty;
+            classes[i] = id < 0 ? GotrIdTable.NONE : CLASSES.get(id);
+            account(i, 1);
+            dirty = true;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(ids, -1);
+        Arrays.fill(quantities, 0);
+        Arrays.fill(classes, GotrIdTable.NONE);
+        occupied = fragments = cells = essence = pearls = degradedPouches = 0;
+        seeded = false;
+        dirty = true;
+        summary = null;
+        geometry.detach();
+    }
+
+    /** Slot widgets may have moved: widgets loaded, the canvas resized or resizable mode changed. */
+    void layoutChanged() {
+        geometry.layoutChanged();
+    }
+
+    GotrInvSummary summary(@NonNull Client client, @NonNull ItemManager itemManager, int pouchEssence) {
+        if (!seeded) {
+            final ItemContainer inv = client.getItemContainer(InventoryID.INVENTORY);
+            if (inv != null) update(inv.getItems());
         }
 
-        // Geometry via widget items (for clickable boxes)
-        final Widget[] wis = getInventoryWidgetItems(client);
+        // The slot points are screen positions, so the summary also follows the canvas and
+        // the inventory panel around.
+        final int geometryVersion = geometry.refresh(client);
+        final Widget inv = client.getWidget(WidgetInfo.INVENTORY);
+        final boolean hidden = inv == null || inv.isHidden();
+        if (summary != null && !dirty && pouchEssence == summaryPouchEssence && hidden == summaryHidden
+                && geometryVersion == summaryGeometry) {
+            return summary;
+        }
+
+        summary = build(hidden, itemManager, pouchEssence);
+        summaryPouchEssence = pouchEssence;
+        summaryGeometry = geometryVersion;
+        summaryHidden = hidden;
+        dirty = false;
+        return summary;
+    }
+
+    private void account(int slot, int sign) {
+        if (ids[slot] < 0) return;
+        occupied += sign;
+        final int cls = classes[slot];
+        final int qty = quantities[slot] * sign;
+        if ((cls & C_FRAGMENTS) != 0) fragments += qty;
+        else if ((cls & C_CELLS) != 0) cells += qty;
+        else if ((cls & C_ESSENCE) != 0) essence += qty;
+        else if ((cls & C_PEARLS) != 0) pearls += qty;
+        else if (ids[slot] == ID_COLOSSAL_POUCH_DEGRADED) degradedPouches += sign;
+    }
+
+    private GotrInvSummary build(boolean hidden, ItemManager itemManager, int pouchEssence) {
+        final Point origin = geometry.origin();
         InvSlotPoint colossal = null;
         List<InvSlotPoint> essenceSlots = new ArrayList<>();
         List<InvSlotPoint> talismanSlots = new ArrayList<>();
 
-        for (Widget w: wis) {
-            final int id = w.getItemId();
-            if (id <= 0 || w.isHidden()) continue;
-
-            // canvas bounds of this slot
-            final java.awt.Rectangle rb = w.getBounds();          // canvas-space
-            if (rb == null || rb.width <= 0 || rb.height <= 0) continue;
-
-            // center in canvas
-            final int cx = rb.x + rb.width / 2;
-            final int cy = rb.y + rb.height / 2;
-
-            // canvas → screen
-            Integer sx = null, sy = null;
-            try {
-                java.awt.Point topLeft = client.getCanvas().getLocationOnScreen();
-                if (topLeft != null) {
-                    sx = topLeft.x + cx;
-                    sy = topLeft.y + cy;
-                }
-            } catch (java.awt.IllegalComponentStateException ignored) {}
-
-            if (sx == null || sy == null) continue;
+        if (!hidden && origin != null) {
+            for (int i = 0; i < SLOTS; i++) {
+                final int cls = classes[i];
+                if ((cls & C_POINTED) == 0) continue;
+                if (cls == C_ESSENCE && !essenceSlots.isEmpty()) continue;
+                if (!geometry.hasSlot(i)) continue;
 
-            final ItemComposition comp = safeComp(itemManager, id);
-            final String name = comp != null ? comp.getName() : "";
-            final int qty = w.getItemQuantity();
+                // slot center, canvas → screen
+                final int sx = origin.x + geometry.centerX(i);
+                final int sy = origin.y + geometry.centerY(i);
+                final InvSlotPoint sp = new InvSlotPoint(ids[i], name(itemManager, ids[i]), quantities[i], sx, sy);
 
-            final InvSlotPoint sp = new InvSlotPoint(id, name, qty, sx, sy);
-
-            if (NAME_ESSENCE.equalsIgnoreCase(name)) {
-                if (essenceSlots.isEmpty()) essenceSlots.add(sp);
-            }
-            if (NAME_POUCH.equalsIgnoreCase(name)) {
-                // If multiple for some reason, pick the first/closest later
-                if (colossal == null) colossal = sp;
-            }
-            if (isTalisman(name)) {
-                talismanSlots.add(sp);
+                if ((cls & C_ESSENCE) != 0) {
+                    if (essenceSlots.isEmpty()) essenceSlots.add(sp);
+                }
+                if ((cls & C_POUCH) != 0) {
+                    // If multiple for some reason, pick the first/closest later
+                    if (colossal == null) colossal = sp;
+                }
+                if ((cls & C_TALISMAN) != 0) {
+                    talismanSlots.add(sp);
+                }
             }
         }
 
-        // Build the summary
         return GotrInvSummary.builder()
-                .emptySlots(empty)
+                .emptySlots(SLOTS - occupied)
                 .fragments(fragments)
                 .unchargedCells(cells)
                 .essence(essence)
@@ -120,18 +170,22 @@ public final class GotrInventoryMapper {
                 .essenceSlots(essenceSlots)
                 .talismans(talismanSlots)
                 .pearls(pearls)
-                .pouchDegraded(colossalDegraded)
-                .pouchEssence(pouchEssenceTracked)
+                .pouchDegraded(degradedPouches > 0)
+                .pouchEssence(pouchEssence)
                 .build();
-
     }
 
-    private static Widget[] getInventoryWidgetItems(Client client) {
-        final Widget inv = client.getWidget(WidgetInfo.INVENTORY); // ok even if deprecated
-        if (inv == null) return new Widget[0];
-        Widget[] children = inv.getChildren();
-        if (children == null) children = new Widget[0];
-        return children;
+    /** Name of a classified item, looked up once; "" until the composition can be loaded. */
+    private static String name(ItemManager im, int id) {
+        final int slot = NAME_SLOTS.get(id) - 1;
+        if (slot < 0) return "";
+        String name = NAMES[slot];
+        if (name == null) {
+            final ItemComposition comp = safeComp(im, id);
+            if (comp == null) return "";
+            name = NAMES[slot] = comp.getName();
+        }
+        return name;
     }
 
     private static ItemComposition safeComp(ItemManager im, int id) {
@@ -139,14 +193,40 @@ public final class GotrInventoryMapper {
         catch (Exception ignored) { return null; }
     }
 
-    private static boolean isTalisman(String name) {
-        return name != null && TALISMAN_NAME.matcher(name).find();
+    private static int[] classifiedIds() {
+        final int[] ids = new int[6 + GuardianInfo.COUNT];
+        int n = 0;
+        ids[n++] = ItemID.GUARDIAN_FRAGMENTS;
+        ids[n++] = ID_UNCHARGED_CELL;
+        ids[n++] = ItemID.GUARDIAN_ESSENCE;
+        ids[n++] = ItemID.ABYSSAL_PEARLS;
+        ids[n++] = ID_COLOSSAL_POUCH_NEW;
+        ids[n++] = ID_COLOSSAL_POUCH_DEGRADED;
+        for (int i = 0; i < GuardianInfo.COUNT; i++) {
+            ids[n++] = GuardianInfo.byIndex(i).talismanId;
+        }
+        return ids;
     }
 
-    private static boolean isColossalPouchId(int id) {
-        return id == ID_COLOSSAL_POUCH_NEW || id == ID_COLOSSAL_POUCH_DEGRADED;
+    private static GotrIdTable classes() {
+        final GotrIdTable.Builder b = GotrIdTable.builder()
+                .or(ItemID.GUARDIAN_FRAGMENTS, C_FRAGMENTS)
+                .or(ID_UNCHARGED_CELL, C_CELLS)
+                .or(ItemID.GUARDIAN_ESSENCE, C_ESSENCE)
+                .or(ItemID.ABYSSAL_PEARLS, C_PEARLS)
+                .or(ID_COLOSSAL_POUCH_NEW, C_POUCH)
+                .or(ID_COLOSSAL_POUCH_DEGRADED, C_POUCH);
+        for (int i = 0; i < GuardianInfo.COUNT; i++) {
+            b.or(GuardianInfo.byIndex(i).talismanId, C_TALISMAN);
+        }
+        return b.build();
     }
-    private static boolean isColossalDegradedId(int id) {
-        return id == ID_COLOSSAL_POUCH_DEGRADED;
+
+    private static GotrIdTable nameSlots() {
+        final GotrIdTable.Builder b = GotrIdTable.builder();
+        for (int i = 0; i < CLASSIFIED_IDS.length; i++) {
+            b.put(CLASSIFIED_IDS[i], i + 1);
+        }
+        return b.build();
     }
 }
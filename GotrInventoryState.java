@@ -0,0 +1,125 @@
+package net.runelite.client.plugins.gotr;
+
+import net.runelite.api.Item;
+import net.runelite.api.ItemID;
+
+/**
+ * Everything the plugin derives from the inventory, filled by one pass over the container.
+ * The same instance is refilled on every change; client thread only.
+ */
+class GotrInventoryState {
+    static final int SLOTS = 28;
+
+    private static final int CHISEL_ID = 1755;
+    private static final int UNCHARGED_CELL_ID = 26882;
+    private static final int OVERCHARGED_CELL_ID = 26886;
+    private static final int CATALYTIC_GUARDIAN_STONE_ID = 26880;
+    private static final int ELEMENTAL_GUARDIAN_STONE_ID = 26881;
+    private static final int POLYELEMENTAL_GUARDIAN_STONE_ID = 26941;
+
+    private static final int K_STONE = 1;
+    private static final int K_UNCHARGED_CELL = 1 << 1;
+    private static final int K_CHISEL = 1 << 2;
+    private static final int K_OVERCHARGED_CELL = 1 << 3;
+    private static final int K_ESSENCE = 1 << 4;
+    private static final int K_FRAGMENTS = 1 << 5;
+    private static final int K_CHARGED_CELL = 1 << 6;
+
+    private static final CellType[] CELL_TYPES = CellType.values();
+    private static final GotrIdTable KINDS = kinds();
+    // charged cell item id -> CellType ordinal + 1
+    private static final GotrIdTable CELL_TYPE_BY_ITEM = cellTypes();
+
+    int occupied;
+    int essence;
+    int fragments;
+    int unchargedCells;
+    boolean stones;
+    boolean chisel;
+    boolean overchargedCell;
+    boolean runes;
+    boolean fragmentsPresent;
+    /** Highest charged cell type carried, or null. */
+    CellType highestChargedCell;
+    /** Guardians whose talisman is carried, indexed like {@link GuardianInfo#ALL}. */
+    int talismanMask;
+
+    void update(Item[] items) {
+        int occupied = 0, essence = 0, fragments = 0, unchargedCells = 0, talismans = 0;
+        int kinds = 0;
+        int bestCell = 0;
+        boolean runes = false;
+        for (Item it : items) {
+            final int id = it == null ? -1 : it.getId();
+            if (id < 0) continue;
+            occupied++;
+            final int kind = KINDS.get(id);
+            if (kind != GotrIdTable.NONE) {
+                kinds |= kind;
+                final int qty = it.getQuantity();
+                if ((kind & K_ESSENCE) != 0) essence += qty;
+                if ((kind & K_FRAGMENTS) != 0) fragments += qty;
+                if ((kind & K_UNCHARGED_CELL) != 0) unchargedCells += qty;
+                if ((kind & K_CHARGED_CELL) != 0) bestCell = Math.max(bestCell, CELL_TYPE_BY_ITEM.get(id));
+                continue;
+            }
+            final int talisman = GuardianInfo.indexOfTalisman(id);
+            if (talisman >= 0) {
+                talismans |= 1 << talisman;
+            } else if (!runes && GuardianInfo.byRuneId(id) != null) {
+                runes = true;
+            }
+        }
+        this.occupied = occupied;
+        this.essence = essence;
+        this.fragments = fragments;
+        this.unchargedCells = unchargedCells;
+        this.stones = (kinds & K_STONE) != 0;
+        this.chisel = (kinds & K_CHISEL) != 0;
+        this.overchargedCell = (kinds & K_OVERCHARGED_CELL) != 0;
+        this.fragmentsPresent = (kinds & K_FRAGMENTS) != 0;
+        this.runes = runes;
+        this.highestChargedCell = bestCell == 0 ? null : CELL_TYPES[bestCell - 1];
+        this.talismanMask = talismans;
+    }
+
+    boolean hasUnchargedCells() {
+        return unchargedCells > 0;
+    }
+
+    boolean hasChargedCells() {
+        return highestChargedCell != null;
+    }
+
+    boolean hasEssence() {
+        return essence > 0;
+    }
+
+    boolean isFull() {
+        return occupied >= SLOTS;
+    }
+
+    private static GotrIdTable kinds() {
+        final GotrIdTable.Builder b = GotrIdTable.builder()
+                .or(CATALYTIC_GUARDIAN_STONE_ID, K_STONE)
+                .or(ELEMENTAL_GUARDIAN_STONE_ID, K_STONE)
+                .or(POLYELEMENTAL_GUARDIAN_STONE_ID, K_STONE)
+                .or(UNCHARGED_CELL_ID, K_UNCHARGED_CELL)
+                .or(CHISEL_ID, K_CHISEL)
+                .or(OVERCHARGED_CELL_ID, K_OVERCHARGED_CELL)
+                .or(ItemID.GUARDIAN_ESSENCE, K_ESSENCE)
+                .or(ItemID.GUARDIAN_FRAGMENTS, K_FRAGMENTS);
+        for (CellTileInfo c : CellTileInfo.ALL) {
+            b.or(c.itemId, K_CHARGED_CELL);
+        }
+        return b.build();
+    }
+
+    private static GotrIdTable cellTypes() {
+        final GotrIdTable.Builder b = GotrIdTable.builder();
+        for (CellTileInfo c : CellTileInfo.ALL) {
+            b.put(c.itemId, c.cellType.ordinal() + 1);
+        }
+        return b.build();
+    }
+}
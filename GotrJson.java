@@ -0,0 +1,54 @@
+package net.runelite.client.plugins.gotr;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/** Gson setup shared by the stream endpoints. Instants are written as ISO strings, like SimpleHttpServer does. */
+@Singleton
+public class GotrJson {
+    private final Gson gson;
+
+    @Inject
+    public GotrJson(Gson gson) {
+        this.gson = gson.newBuilder()
+                .registerTypeAdapter(Instant.class, new InstantAdapter().nullSafe())
+                .create();
+    }
+
+    public JsonElement toTree(Object value) {
+        return gson.toJsonTree(value);
+    }
+
+    public byte[] toBytes(JsonElement tree) {
+        return gson.toJson(tree).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public Gson gson() {
+        return gson;
+    }
+
+    private static final class InstantAdapter extends TypeAdapter<Instant> {
+        @Override
+        public void write(JsonWriter out, Instant value) throws IOException {
+            out.value(value.toString());
+        }
+
+        @Override
+        public Instant read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NUMBER) {
+                return Instant.ofEpochMilli(in.nextLong());
+            }
+            return Instant.parse(in.nextString());
+        }
+    }
+}
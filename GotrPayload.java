@@ -13,14 +13,13 @@ import java.util.*;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import static net.runelite.client.server.DialogSnapshot.buildDialogSnapshot;
-import static net.runelite.client.server.MenuSnapshot.buildMenuSnapshot;
-
 @Slf4j
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class GotrPayload extends Payload {
     private List<TargetPoint> activeGuardians;
+    // Bit i set when GuardianInfo.ALL's i-th guardian (Air = bit 0 ... Blood = bit 11) is active.
+    private int activeGuardianMask;
     private List<TargetPoint> cellTiles;
     private TargetPoint hugeGuardian;
     private TargetPoint largeGuardian;
@@ -42,6 +41,8 @@ public class GotrPayload extends Payload {
     private PointBalance pointBalance;
 
     private boolean isInMinigame;
+    private boolean isInMainRegion;
+    private boolean dormant;
     private boolean hasAnyRunes;
     private boolean hasAnyGuardianEssence;
     private boolean hasAnyChargedCells;
@@ -59,18 +60,26 @@ public class GotrPayload extends Payload {
     private TargetPoint bankCloseButton;
     private TargetPoint bankFirstSlot;
 
+    // GotrField mask this payload was built with; not serialized
+    private transient long fields;
+
     public GotrPayload(
             Client client,
+            GotrProjectionCache projections,
+            GotrPayloadSections sections,
             long seq,
             long ts,
+            long fields,
             boolean loggedIn,
             boolean isInMinigame,
+            boolean isInMainRegion,
             List<Widget> bankTiles,
             Widget bankCloseButton,
             Widget bankFirstSlot,
             GameObject bankChest,
             InvSummary inv,
-            Set<GameObject> activeGuardians,
+            Collection<GameObject> activeGuardians,
+            int activeGuardianMask,
             Set<GroundObject> cellTiles,
             GameObject hugeGuardian,
             GameObject largeGuardian,
@@ -103,17 +112,21 @@ public class GotrPayload extends Payload {
             PlayerSnapshot player,
             PointBalance pointBalance
     ) {
+        // fields is a GotrField mask; anything not in it is left null and never projected.
+        this.fields = fields;
         this.seq = seq;
         this.ts = ts;
         this.loggedIn = loggedIn;
-        this.inv = inv;
+        this.inv = GotrField.INV.in(fields) ? inv : null;
 
-        this.player = player;
-        this.menu   = buildMenuSnapshot(client);
-        this.dialog = buildDialogSnapshot(client);
+        this.player = GotrField.PLAYER.in(fields) ? player : null;
+        this.menu   = GotrField.MENU.in(fields) ? sections.menu(client) : null;
+        this.dialog = GotrField.DIALOG.in(fields) ? sections.dialog(client) : null;
 
         this.isInMinigame = isInMinigame;
-        this.barrier              = TargetPointMapper.fromTileObject(client, barrier);
+        this.isInMainRegion = isInMainRegion;
+        this.activeGuardianMask = activeGuardianMask;
+        this.barrier              = project(client, projections, fields, GotrField.BARRIER, barrier);
 
         this.hasAnyRunes = hasAnyRunes;
         this.hasAnyGuardianEssence = hasAnyGuardianEssence;
@@ -128,47 +141,74 @@ public class GotrPayload extends Payload {
         this.pointBalance = pointBalance;
 
 
-        this.activeGuardians = activeGuardians.isEmpty() ? null : activeGuardians.stream()
-                .map(go -> TargetPointMapper.fromTileObject(client, go, TargetPointMapper.safeObjectName(client, go.getId())))
+        // Unchanged lists come back as the previous payload's instance, so their encoding is reused.
+        this.activeGuardians = !GotrField.ACTIVE_GUARDIANS.in(fields) || activeGuardians.isEmpty() ? null : sections.list(GotrField.ACTIVE_GUARDIANS, activeGuardians.stream()
+                .map(go -> projections.namedTileObject(client, go))
                 .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        this.cellTiles = cellTiles.isEmpty() ? null : cellTiles.stream()
-                .map(go -> TargetPointMapper.fromTileObject(client, go))
+                .collect(Collectors.toList()));
+        this.cellTiles = !GotrField.CELL_TILES.in(fields) || cellTiles.isEmpty() ? null : sections.list(GotrField.CELL_TILES, cellTiles.stream()
+                .map(go -> projections.tileObject(client, go))
                 .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        this.hugeGuardian         = TargetPointMapper.fromTileObject(client, hugeGuardian);
-        this.largeGuardian        = TargetPointMapper.fromTileObject(client, largeGuardian);
-        this.greatGuardian        = TargetPointMapper.fromNPC(client, greatGuardian);
-        this.apprentice           = TargetPointMapper.fromNPC(client, apprentice);
-        this.unchargedCellTable   = TargetPointMapper.fromTileObject(client, unchargedCellTable);
-        this.depositPool          = TargetPointMapper.fromTileObject(client, depositPool);
-        this.catalyticEssencePile = TargetPointMapper.fromTileObject(client, catalyticEssencePile);
-        this.elementalEssencePile = TargetPointMapper.fromTileObject(client, elementalEssencePile);
-
-        this.portal               = TargetPointMapper.fromTileObject(client, portal);
-        this.returnPortal         = TargetPointMapper.fromTileObject(client, returnPortal);
-        if (this.returnPortal.getDistToPlayer() > 5) {
-            this.returnPortal = null;
-            this.hugeGuardian = null;
+                .collect(Collectors.toList()));
+        this.hugeGuardian         = project(client, projections, fields, GotrField.HUGE_GUARDIAN, hugeGuardian);
+        this.largeGuardian        = project(client, projections, fields, GotrField.LARGE_GUARDIAN, largeGuardian);
+        this.greatGuardian        = GotrField.GREAT_GUARDIAN.in(fields) ? projections.npc(client, greatGuardian) : null;
+        this.apprentice           = GotrField.APPRENTICE.in(fields) ? projections.npc(client, apprentice) : null;
+        this.unchargedCellTable   = project(client, projections, fields, GotrField.UNCHARGED_CELL_TABLE, unchargedCellTable);
+        this.depositPool          = project(client, projections, fields, GotrField.DEPOSIT_POOL, depositPool);
+        this.catalyticEssencePile = project(client, projections, fields, GotrField.CATALYTIC_ESSENCE_PILE, catalyticEssencePile);
+        this.elementalEssencePile = project(client, projections, fields, GotrField.ELEMENTAL_ESSENCE_PILE, elementalEssencePile);
+
+        this.portal               = project(client, projections, fields, GotrField.PORTAL, portal);
+        // The huge guardian is only reported next to the return portal, so it needs the portal too.
+        if (GotrField.RETURN_PORTAL.in(fields) || GotrField.HUGE_GUARDIAN.in(fields)) {
+            this.returnPortal = projections.tileObject(client, returnPortal);
+            if (this.returnPortal != null && this.returnPortal.getDistToPlayer() > 5) {
+                this.returnPortal = null;
+                this.hugeGuardian = null;
+            }
+            if (!GotrField.RETURN_PORTAL.in(fields)) {
+                this.returnPortal = null;
+            }
         }
 
-        this.workbench            = TargetPointMapper.fromTileObject(client, workbench);
-        this.rubbleTop            = TargetPointMapper.fromTileObject(client, rubbleTop);
-        this.rubbleBottom         = TargetPointMapper.fromTileObject(client, rubbleBottom);
+        this.workbench            = project(client, projections, fields, GotrField.WORKBENCH, workbench);
+        this.rubbleTop            = project(client, projections, fields, GotrField.RUBBLE_TOP, rubbleTop);
+        this.rubbleBottom         = project(client, projections, fields, GotrField.RUBBLE_BOTTOM, rubbleBottom);
 
-        this.currentAltar         = TargetPointMapper.fromTileObject(client, currentAltar);
-        this.altarPortal          = TargetPointMapper.fromTileObject(client, altarPortal);
+        this.currentAltar         = project(client, projections, fields, GotrField.CURRENT_ALTAR, currentAltar);
+        this.altarPortal          = project(client, projections, fields, GotrField.ALTAR_PORTAL, altarPortal);
 
         this.isFirstPortal = isFirstPortal;
         this.rewardReceived = rewardReceived;
 
-        this.bankTiles = bankTiles != null ? bankTiles.stream()
+        this.bankTiles = bankTiles != null && GotrField.BANK_TILES.in(fields) ? bankTiles.stream()
                 .map(w -> TargetPointMapper.fromWidget(client, w, Objects.requireNonNull(w.getChild(1)).getText()))
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList()) : null;
 
-        this.bankCloseButton = bankCloseButton != null ? TargetPointMapper.fromWidget(client, bankCloseButton) : null;
-        this.bankFirstSlot = bankFirstSlot != null ? TargetPointMapper.fromWidget(client, bankFirstSlot) : null;
-        this.bankChest = bankChest != null ? TargetPointMapper.fromTileObject(client, bankChest) : null;
+        this.bankCloseButton = bankCloseButton != null && GotrField.BANK_CLOSE_BUTTON.in(fields) ? TargetPointMapper.fromWidget(client, bankCloseButton) : null;
+        this.bankFirstSlot = bankFirstSlot != null && GotrField.BANK_FIRST_SLOT.in(fields) ? TargetPointMapper.fromWidget(client, bankFirstSlot) : null;
+        this.bankChest = bankChest != null && GotrField.BANK_CHEST.in(fields) ? projections.tileObject(client, bankChest) : null;
+    }
+
+    private GotrPayload(long seq, long ts, boolean loggedIn, boolean isInMinigame, boolean isInMainRegion) {
+        this.seq = seq;
+        this.ts = ts;
+        this.loggedIn = loggedIn;
+        this.isInMinigame = isInMinigame;
+        this.isInMainRegion = isInMainRegion;
+        this.dormant = true;
+        // nothing is left out for lack of demand
+        this.fields = GotrField.ALL;
+    }
+
+    /** Published while the player is away from the rift: login and region state only. */
+    static GotrPayload dormant(long seq, long ts, boolean loggedIn, boolean isInMinigame, boolean isInMainRegion) {
+        return new GotrPayload(seq, ts, loggedIn, isInMinigame, isInMainRegion);
+    }
+
+    private static TargetPoint project(Client client, GotrProjectionCache projections, long fields, GotrField field, TileObject object) {
+        return field.in(fields) ? projections.tileObject(client, object) : null;
     }
 }
@@ -0,0 +1,118 @@
+package net.runelite.client.plugins.gotr;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of recently published payloads. The encoded bytes live in one direct buffer
+ * so an hour of history stays off the Java heap; only the small seq/offset index is on-heap.
+ * Appending evicts the oldest entries whose bytes would be overwritten.
+ */
+class GotrPayloadHistory {
+    private final ByteBuffer data;
+    private final long[] seqs;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    private int head;   // index of the oldest entry
+    private int count;
+    private int writePos;
+
+    GotrPayloadHistory(int capacityBytes, int maxEntries) {
+        this.data = ByteBuffer.allocateDirect(capacityBytes);
+        this.seqs = new long[maxEntries];
+        this.offsets = new int[maxEntries];
+        this.lengths = new int[maxEntries];
+    }
+
+    synchronized void append(long seq, byte[] bytes) {
+        final int len = bytes.length;
+        if (len > data.capacity()) {
+            return;
+        }
+        if (count > 0 && seq <= seqs[slot(count - 1)]) {
+            // seq restarted (plugin restart); older history no longer lines up
+            clear();
+        }
+        if (writePos + len > data.capacity()) {
+            // Drop everything still stored in the tail we are skipping.
+            evictOverlapping(writePos, data.capacity());
+            writePos = 0;
+        }
+        evictOverlapping(writePos, writePos + len);
+        if (count == seqs.length) {
+            dropOldest();
+        }
+
+        final ByteBuffer dst = data.duplicate();
+        dst.position(writePos);
+        dst.put(bytes);
+        final int i = slot(count);
+        seqs[i] = seq;
+        offsets[i] = writePos;
+        lengths[i] = len;
+        count++;
+        writePos += len;
+    }
+
+    /** Payloads with from <= seq <= to, oldest first, at most limit of them. */
+    synchronized List<byte[]> range(long from, long to, int limit) {
+        final List<byte[]> out = new ArrayList<>();
+        final ByteBuffer src = data.duplicate();
+        for (int n = firstAtLeast(from); n < count && out.size() < limit; n++) {
+            final int i = slot(n);
+            if (seqs[i] > to) break;
+            final byte[] bytes = new byte[lengths[i]];
+            src.position(offsets[i]);
+            src.get(bytes);
+            out.add(bytes);
+        }
+        return out;
+    }
+
+    synchronized long oldestSeq() {
+        return count == 0 ? -1 : seqs[head];
+    }
+
+    synchronized long newestSeq() {
+        return count == 0 ? -1 : seqs[slot(count - 1)];
+    }
+
+    synchronized void clear() {
+        head = 0;
+        count = 0;
+        writePos = 0;
+    }
+
+    private int firstAtLeast(long seq) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (seqs[slot(mid)] < seq) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void evictOverlapping(int start, int end) {
+        while (count > 0) {
+            final int i = head;
+            final int s = offsets[i];
+            final int e = s + lengths[i];
+            if (e <= start || s >= end) {
+                return;
+            }
+            dropOldest();
+        }
+    }
+
+    private void dropOldest() {
+        head = (head + 1) % seqs.length;
+        count--;
+    }
+
+    private int slot(int n) {
+        return (head + n) % seqs.length;
+    }
+}
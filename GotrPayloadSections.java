@@ -0,0 +1,96 @@
+package net.runelite.client.plugins.gotr;
+
+import net.runelite.api.Client;
+import net.runelite.api.Item;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.server.DialogSnapshot;
+import net.runelite.client.server.MenuSnapshot;
+import net.runelite.client.server.TargetPoint;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands the previous payload's section objects back while nothing they were built from changed,
+ * so consecutive payloads share them and {@link GotrStreamServer} can reuse their encoded bytes.
+ *
+ * The event handlers bump a version per section; a section is rebuilt when its version, or the
+ * cheap state it is keyed on besides that, has moved. The inventory is instead fed slot diffs
+ * and keeps its own summary. Client thread only.
+ */
+class GotrPayloadSections {
+    private int menuVersion;
+    private int dialogVersion;
+
+    private final Map<GotrField, List<TargetPoint>> lists = new EnumMap<>(GotrField.class);
+    private final GotrInventoryMapper inventory = new GotrInventoryMapper();
+    private int menuKey = -1;
+    private MenuSnapshot menu;
+    private int dialogKey = -1;
+    private DialogSnapshot dialog;
+
+    void inventoryChanged(Item[] items) {
+        inventory.update(items);
+    }
+
+    void inventoryLayoutChanged() {
+        inventory.layoutChanged();
+    }
+
+    void menuChanged() {
+        menuVersion++;
+    }
+
+    void dialogChanged() {
+        dialogVersion++;
+    }
+
+    void clear() {
+        lists.clear();
+        inventory.clear();
+        menuKey = -1;
+        menu = null;
+        dialogKey = -1;
+        dialog = null;
+    }
+
+    /** The list built for field last time when it holds the very same TargetPoints, else list. */
+    List<TargetPoint> list(GotrField field, List<TargetPoint> list) {
+        final List<TargetPoint> previous = lists.get(field);
+        if (previous != null && list != null && sameElements(previous, list)) {
+            return previous;
+        }
+        lists.put(field, list);
+        return list;
+    }
+
+    GotrInvSummary inventory(Client client, ItemManager itemManager, int pouchEssence) {
+        return inventory.summary(client, itemManager, pouchEssence);
+    }
+
+    MenuSnapshot menu(Client client) {
+        // A closed menu follows the mouse every frame; only an open one holds still.
+        if (menu == null || !client.isMenuOpen() || menuKey != menuVersion) {
+            menu = MenuSnapshot.buildMenuSnapshot(client);
+            menuKey = client.isMenuOpen() ? menuVersion : -1;
+        }
+        return menu;
+    }
+
+    DialogSnapshot dialog(Client client) {
+        if (dialog == null || dialogKey != dialogVersion) {
+            dialog = DialogSnapshot.buildDialogSnapshot(client);
+            dialogKey = dialogVersion;
+        }
+        return dialog;
+    }
+
+    private static boolean sameElements(List<TargetPoint> a, List<TargetPoint> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i) != b.get(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,74 @@
+package net.runelite.client.plugins.gotr;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Hands payloads captured on the client thread to a single "gotr-payload" thread, which does
+ * all serialization and publication. If the worker falls behind, older payloads are skipped
+ * in favour of the newest one.
+ */
+@Slf4j
+@Singleton
+public class GotrPayloadWorker {
+    private final AtomicReference<GotrPayload> pending = new AtomicReference<>();
+
+    private volatile ExecutorService executor;
+    private Consumer<GotrPayload> sink;
+
+    public synchronized void start(Consumer<GotrPayload> sink) {
+        if (executor != null) return;
+        this.sink = sink;
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "gotr-payload");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Runs the sink on the submitting thread; used by the replay engine (test sources) for deterministic output. */
+    synchronized void startInline(Consumer<GotrPayload> sink) {
+        if (executor != null) return;
+        this.sink = sink;
+        executor = MoreExecutors.newDirectExecutorService();
+    }
+
+    public synchronized void stop() {
+        if (executor == null) return;
+        executor.shutdownNow();
+        executor = null;
+        pending.set(null);
+    }
+
+    /** Client thread: never blocks. */
+    public void submit(GotrPayload payload) {
+        final ExecutorService ex = executor;
+        if (ex == null) return;
+        if (pending.getAndSet(payload) == null) {
+            try {
+                ex.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // stopped concurrently
+                pending.set(null);
+            }
+        }
+    }
+
+    private void drain() {
+        GotrPayload payload;
+        while ((payload = pending.getAndSet(null)) != null) {
+            try {
+                sink.accept(payload);
+            } catch (RuntimeException e) {
+                log.warn("Failed to publish GOTR payload {}", payload.getSeq(), e);
+            }
+        }
+    }
+}
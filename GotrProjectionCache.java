@@ -0,0 +1,130 @@
+package net.runelite.client.plugins.gotr;
+
+import lombok.Value;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.TileObject;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.server.TargetPoint;
+import net.runelite.client.server.TargetPointMapper;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reuses TargetPoints between payloads while nothing that feeds the projection has moved: the
+ * camera, canvas, minimap, player tile and the target's own local location. Client thread only.
+ */
+class GotrProjectionCache {
+    private final Map<Object, Entry> entries = new IdentityHashMap<>();
+
+    private View view;
+    private int generation;
+
+    /** Call once before each payload is projected. */
+    void begin(Client client) {
+        generation++;
+        final View next = View.of(client);
+        if (!next.equals(view)) {
+            view = next;
+            entries.clear();
+            return;
+        }
+        // targets that were not part of the last payload have despawned or moved out of it
+        entries.values().removeIf(e -> e.generation < generation - 1);
+    }
+
+    void clear() {
+        view = null;
+        entries.clear();
+    }
+
+    TargetPoint tileObject(Client client, TileObject object) {
+        return tileObject(client, object, false);
+    }
+
+    /** Like {@link #tileObject(Client, TileObject)}, labelled with the object's composition name. */
+    TargetPoint namedTileObject(Client client, TileObject object) {
+        return tileObject(client, object, true);
+    }
+
+    private TargetPoint tileObject(Client client, TileObject object, boolean named) {
+        if (object == null) return null;
+        final LocalPoint local = object.getLocalLocation();
+        // a named and an unnamed point for the same object differ, so the label is part of the key
+        final Entry cached = hit(object, local, named);
+        if (cached != null) return cached.point;
+        final TargetPoint tp = named
+                ? TargetPointMapper.fromTileObject(client, object, TargetPointMapper.safeObjectName(client, object.getId()))
+                : TargetPointMapper.fromTileObject(client, object);
+        entries.put(object, new Entry(local, named, tp, generation));
+        return tp;
+    }
+
+    TargetPoint npc(Client client, NPC npc) {
+        if (npc == null) return null;
+        final LocalPoint local = npc.getLocalLocation();
+        final Entry cached = hit(npc, local, false);
+        if (cached != null) return cached.point;
+        final TargetPoint tp = TargetPointMapper.fromNPC(client, npc);
+        entries.put(npc, new Entry(local, false, tp, generation));
+        return tp;
+    }
+
+    private Entry hit(Object target, LocalPoint local, boolean named) {
+        final Entry e = entries.get(target);
+        if (e == null || e.named != named || !Objects.equals(e.local, local)) return null;
+        e.generation = generation;
+        return e;
+    }
+
+    private static final class Entry {
+        final LocalPoint local;
+        final boolean named;
+        final TargetPoint point;
+        int generation;
+
+        Entry(LocalPoint local, boolean named, TargetPoint point, int generation) {
+            this.local = local;
+            this.named = named;
+            this.point = point;
+            this.generation = generation;
+        }
+    }
+
+    /** Everything besides the target itself that canvas, minimap and distance depend on. */
+    @Value
+    private static class View {
+        int cameraX;
+        int cameraY;
+        int cameraZ;
+        int pitch;
+        int yaw;
+        int scale;
+        int canvasWidth;
+        int canvasHeight;
+        int viewportX;
+        int viewportY;
+        double minimapZoom;
+        int baseX;
+        int baseY;
+        WorldPoint playerWorld;
+        LocalPoint playerLocal;
+
+        static View of(Client client) {
+            final Player me = client.getLocalPlayer();
+            return new View(
+                    client.getCameraX(), client.getCameraY(), client.getCameraZ(),
+                    client.getCameraPitch(), client.getCameraYaw(), client.getScale(),
+                    client.getCanvasWidth(), client.getCanvasHeight(),
+                    client.getViewportXOffset(), client.getViewportYOffset(),
+                    client.getMinimapZoom(),
+                    client.getBaseX(), client.getBaseY(),
+                    me != null ? me.getWorldLocation() : null,
+                    me != null ? me.getLocalLocation() : null);
+        }
+    }
+}
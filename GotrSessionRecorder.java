@@ -0,0 +1,169 @@
+package net.runelite.client.plugins.gotr;
+
+import com.google.gson.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Appends every published payload (binary encoded) and the raw events that produced it to
+ * memory-mapped segments under .runelite/gotr-sessions. A new segment starts with each game
+ * ("The rift becomes active!") and whenever the current one fills up.
+ *
+ * All file work happens on the "gotr-recorder" thread; callers only enqueue.
+ */
+@Slf4j
+@Singleton
+public class GotrSessionRecorder {
+    static final File SESSION_DIR = new File(RuneLite.RUNELITE_DIR, "gotr-sessions");
+
+    private static final int SEGMENT_BYTES = 16 << 20;
+    private static final int SEGMENT_RECORDS = 65_536;
+    private static final long FORCE_INTERVAL_MS = 5_000;
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final GotrJson json;
+    private final GotrStreamServer streamServer;
+
+    private volatile ExecutorService executor;
+    private volatile boolean active;
+    private volatile long lastSeq;
+
+    // recorder thread only
+    private GotrSessionSegment segment;
+    private String sessionName;
+    private int part;
+    private long lastForce;
+
+    @Inject
+    public GotrSessionRecorder(GotrJson json, GotrStreamServer streamServer) {
+        this.json = json;
+        this.streamServer = streamServer;
+    }
+
+    public synchronized void start() {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "gotr-recorder");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public synchronized void stop() {
+        if (executor == null) return;
+        final ExecutorService ex = executor;
+        executor = null;
+        ex.execute(this::closeSegment);
+        ex.shutdown();
+    }
+
+    /** Recording only happens while the player is in or around the minigame. */
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public boolean isRecording() {
+        return active && executor != null;
+    }
+
+    /** Called from the payload worker. */
+    public void recordPayload(GotrPayload payload) {
+        if (!isRecording()) return;
+        final long seq = payload.getSeq();
+        lastSeq = seq;
+        final long wallMs = payload.getTs();
+        submit(() -> {
+            // the stream server may have encoded it already; only encode again once it moved on
+            byte[] data = streamServer.latestBody(seq, true);
+            if (data == null) {
+                data = GotrBinaryCodec.encode(payload, json);
+            }
+            append(GotrSessionSegment.TYPE_PAYLOAD, seq, wallMs, data);
+        });
+    }
+
+    /** Called from the client thread. The event is tagged with the seq of the last payload. */
+    public void recordEvent(JsonObject event) {
+        if (!isRecording()) return;
+        final long seq = lastSeq;
+        final long wallMs = System.currentTimeMillis();
+        submit(() -> append(GotrSessionSegment.TYPE_EVENT, seq, wallMs, json.gson().toJson(event).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** Starts a new session file for the game that just began. */
+    public void newGame() {
+        submit(() -> {
+            closeSegment();
+            sessionName = null;
+        });
+    }
+
+    private void submit(Runnable task) {
+        final ExecutorService ex = executor;
+        if (ex == null) return;
+        try {
+            ex.execute(task);
+        } catch (RejectedExecutionException ignored) {
+            // stopped concurrently
+        }
+    }
+
+    private void append(byte type, long seq, long wallMs, byte[] data) {
+        try {
+            if (segment == null) {
+                openSegment();
+            }
+            if (!segment.append(type, seq, wallMs, data)) {
+                closeSegment();
+                openSegment();
+                if (!segment.append(type, seq, wallMs, data)) {
+                    log.debug("GOTR record of {} bytes does not fit a segment", data.length);
+                    return;
+                }
+            }
+            if (wallMs - lastForce > FORCE_INTERVAL_MS) {
+                segment.force();
+                lastForce = wallMs;
+            }
+        } catch (IOException e) {
+            log.warn("GOTR session recording failed", e);
+            closeSegment();
+        }
+    }
+
+    private void openSegment() throws IOException {
+        Files.createDirectories(SESSION_DIR.toPath());
+        if (sessionName == null) {
+            sessionName = "session-" + LocalDateTime.now().format(NAME);
+            part = 0;
+        }
+        final String base = part == 0 ? sessionName : sessionName + "-" + part;
+        part++;
+        final Path dir = SESSION_DIR.toPath();
+        segment = GotrSessionSegment.create(dir.resolve(base + ".gotr"), dir.resolve(base + ".idx"), SEGMENT_BYTES, SEGMENT_RECORDS);
+        log.debug("GOTR recording to {}", base);
+    }
+
+    private void closeSegment() {
+        if (segment == null) return;
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.warn("Failed to close GOTR session segment", e);
+        }
+        segment = null;
+    }
+}
@@ -0,0 +1,172 @@
+package net.runelite.client.plugins.gotr;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped recording segment plus its index file.
+ *
+ * Segment: 64 byte header (magic, version, committed end, record count, created ms), then records of
+ * [i32 length][u8 type][i64 seq][i64 wall ms][i32 crc32 of data][data]. Index: 32 byte header
+ * (magic, committed count), then [i64 seq][i64 wall ms][i32 offset][i32 type] per record.
+ *
+ * A record is written in full before the committed end in the header moves past it, so after a
+ * crash a reader sees every record up to the last commit and nothing torn.
+ */
+@Slf4j
+class GotrSessionSegment implements AutoCloseable {
+    static final byte TYPE_PAYLOAD = 1;
+    static final byte TYPE_EVENT = 2;
+
+    private static final long SEGMENT_MAGIC = 0x474F545253454731L; // "GOTRSEG1"
+    private static final long INDEX_MAGIC = 0x474F545249445831L;   // "GOTRIDX1"
+    private static final int VERSION = 1;
+
+    private static final int HEADER = 64;
+    private static final int H_COMMITTED = 16;
+    private static final int H_COUNT = 24;
+    private static final int H_CREATED = 32;
+    private static final int RECORD_HEADER = 4 + 1 + 8 + 8 + 4;
+
+    private static final int INDEX_HEADER = 32;
+    private static final int I_COUNT = 8;
+    private static final int INDEX_ENTRY = 24;
+
+    private final FileChannel segmentChannel;
+    private final FileChannel indexChannel;
+    private final MappedByteBuffer segment;
+    private final MappedByteBuffer index;
+    private final CRC32 crc = new CRC32();
+
+    private int end = HEADER;
+    private int count;
+
+    private GotrSessionSegment(FileChannel segmentChannel, FileChannel indexChannel, MappedByteBuffer segment, MappedByteBuffer index) {
+        this.segmentChannel = segmentChannel;
+        this.indexChannel = indexChannel;
+        this.segment = segment;
+        this.index = index;
+    }
+
+    static GotrSessionSegment create(Path segmentPath, Path indexPath, int segmentBytes, int maxRecords) throws IOException {
+        final FileChannel sc = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final FileChannel ic = FileChannel.open(indexPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final MappedByteBuffer seg = sc.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        final MappedByteBuffer idx = ic.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) maxRecords * INDEX_ENTRY);
+
+        seg.putLong(0, SEGMENT_MAGIC);
+        seg.putInt(8, VERSION);
+        seg.putLong(H_COMMITTED, HEADER);
+        seg.putInt(H_COUNT, 0);
+        seg.putLong(H_CREATED, System.currentTimeMillis());
+        idx.putLong(0, INDEX_MAGIC);
+        idx.putInt(I_COUNT, 0);
+        return new GotrSessionSegment(sc, ic, seg, idx);
+    }
+
+    /** False when the record does not fit; the caller should roll to a new segment. */
+    boolean append(byte type, long seq, long wallMs, byte[] data) {
+        final int size = RECORD_HEADER + data.length;
+        if (end + size > segment.capacity() || INDEX_HEADER + (long) (count + 1) * INDEX_ENTRY > index.capacity()) {
+            return false;
+        }
+
+        crc.reset();
+        crc.update(data, 0, data.length);
+
+        final ByteBuffer rec = segment.duplicate();
+        rec.position(end);
+        rec.putInt(data.length);
+        rec.put(type);
+        rec.putLong(seq);
+        rec.putLong(wallMs);
+        rec.putInt((int) crc.getValue());
+        rec.put(data);
+
+        final int entry = INDEX_HEADER + count * INDEX_ENTRY;
+        index.putLong(entry, seq);
+        index.putLong(entry + 8, wallMs);
+        index.putInt(entry + 16, end);
+        index.putInt(entry + 20, type);
+
+        // commit: the record must be visible before the header points past it
+        VarHandle.releaseFence();
+        end += size;
+        count++;
+        segment.putInt(H_COUNT, count);
+        segment.putLong(H_COMMITTED, end);
+        index.putInt(I_COUNT, count);
+        return true;
+    }
+
+    void force() {
+        segment.force();
+        index.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        try {
+            // the space reserved past the last commit holds nothing; give it back
+            segmentChannel.truncate(end);
+            indexChannel.truncate(INDEX_HEADER + (long) count * INDEX_ENTRY);
+        } catch (IOException e) {
+            // Windows will not shrink a file while it is still mapped; readers stop at the commit anyway
+            log.debug("Could not truncate GOTR session segment: {}", e.getMessage());
+        } finally {
+            segmentChannel.close();
+            indexChannel.close();
+        }
+    }
+
+    /** Reads every committed record with a valid checksum. */
+    static List<Record> read(Path segmentPath) throws IOException {
+        try (FileChannel ch = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+            final MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.capacity() < HEADER || buf.getLong(0) != SEGMENT_MAGIC) {
+                throw new IOException("not a GOTR session segment: " + segmentPath);
+            }
+            final long committed = Math.min(buf.getLong(H_COMMITTED), buf.capacity());
+            final List<Record> records = new ArrayList<>();
+            final CRC32 check = new CRC32();
+            int pos = HEADER;
+            while (pos + RECORD_HEADER <= committed) {
+                buf.position(pos);
+                final int len = buf.getInt();
+                if (len < 0 || pos + RECORD_HEADER + len > committed) break;
+                final byte type = buf.get();
+                final long seq = buf.getLong();
+                final long wallMs = buf.getLong();
+                final int crc = buf.getInt();
+                final byte[] data = new byte[len];
+                buf.get(data);
+                check.reset();
+                check.update(data, 0, len);
+                if ((int) check.getValue() != crc) break;
+                records.add(new Record(type, seq, wallMs, data));
+                pos += RECORD_HEADER + len;
+            }
+            return records;
+        }
+    }
+
+    @Value
+    static class Record {
+        byte type;
+        long seq;
+        long wallMs;
+        byte[] data;
+    }
+}
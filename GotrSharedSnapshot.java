@@ -0,0 +1,155 @@
+package net.runelite.client.plugins.gotr;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the latest payload into a memory-mapped file (.runelite/gotr.shm) guarded by a seqlock,
+ * so a local reader can poll it without any syscall.
+ *
+ * Layout, native byte order: 64 byte header of [u64 magic][i32 version][i32 capacity][i64 lock]
+ * [i64 payload seq][i32 length][u8 format], then the payload body. format is
+ * {@link GotrSocketTransport#FORMAT_JSON} or {@link GotrSocketTransport#FORMAT_BINARY}.
+ *
+ * The writer makes lock odd, writes the body and header, then makes lock even again. A reader
+ * loads lock (acquire), skips odd values, copies length bytes, loads lock again and keeps the copy
+ * only if both loads match; {@link #read(ByteBuffer)} does exactly that.
+ */
+@Slf4j
+@Singleton
+public class GotrSharedSnapshot {
+    static final File PATH = new File(RuneLite.RUNELITE_DIR, "gotr.shm");
+
+    private static final long MAGIC = 0x474F5452534E4150L; // "GOTRSNAP"
+    private static final int VERSION = 1;
+    private static final int CAPACITY = 4 << 20;
+
+    private static final int HEADER = 64;
+    private static final int H_CAPACITY = 12;
+    private static final int H_LOCK = 16;
+    private static final int H_SEQ = 24;
+    private static final int H_LENGTH = 32;
+    private static final int H_FORMAT = 36;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final GotrJson json;
+    private final GotrStreamServer streamServer;
+    private final GuardiansOfTheRiftHelperConfig config;
+
+    private volatile MappedByteBuffer buffer;
+    private FileChannel channel;
+    private boolean binary;
+
+    @Inject
+    public GotrSharedSnapshot(GotrJson json, GotrStreamServer streamServer, GuardiansOfTheRiftHelperConfig config) {
+        this.json = json;
+        this.streamServer = streamServer;
+        this.config = config;
+    }
+
+    public synchronized void start() {
+        if (buffer != null) return;
+        binary = config.sharedMemoryBinary();
+        try {
+            channel = FileChannel.open(PATH.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            final MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + CAPACITY);
+            buf.order(ByteOrder.nativeOrder());
+            // Readers may still hold the file from a previous run, so the lock moves on from
+            // where it was (past an odd value left by a writer that died mid-write), never back.
+            final long lock = (long) LONGS.get(buf, H_LOCK) & ~1L;
+            LONGS.setOpaque(buf, H_LOCK, lock + 1);
+            VarHandle.storeStoreFence();
+            buf.putLong(0, MAGIC);
+            buf.putInt(8, VERSION);
+            buf.putInt(H_CAPACITY, CAPACITY);
+            buf.putLong(H_SEQ, -1);
+            buf.putInt(H_LENGTH, 0);
+            LONGS.setRelease(buf, H_LOCK, lock + 2);
+            buffer = buf;
+            log.info("GOTR shared memory snapshot at {}", PATH);
+        } catch (IOException e) {
+            log.warn("GOTR shared memory snapshot could not map {}", PATH, e);
+            close();
+        }
+    }
+
+    public synchronized void stop() {
+        buffer = null;
+        close();
+    }
+
+    /** Called from the payload worker only; there is a single writer. */
+    public void publish(GotrPayload payload) {
+        final MappedByteBuffer buf = buffer;
+        if (buf == null) return;
+        byte[] body = streamServer.latestBody(payload.getSeq(), binary);
+        if (body == null) {
+            body = binary ? GotrBinaryCodec.encode(payload, json) : json.gson().toJson(json.toTree(payload)).getBytes(StandardCharsets.UTF_8);
+        }
+        if (body.length > CAPACITY) {
+            log.debug("GOTR payload {} of {} bytes does not fit shared memory", payload.getSeq(), body.length);
+            return;
+        }
+
+        final long lock = (long) LONGS.get(buf, H_LOCK);
+        LONGS.setOpaque(buf, H_LOCK, lock + 1);
+        VarHandle.storeStoreFence();
+
+        final ByteBuffer dst = buf.duplicate();
+        dst.position(HEADER);
+        dst.put(body);
+        buf.putLong(H_SEQ, payload.getSeq());
+        buf.putInt(H_LENGTH, body.length);
+        buf.put(H_FORMAT, (byte) (binary ? GotrSocketTransport.FORMAT_BINARY : GotrSocketTransport.FORMAT_JSON));
+
+        // release: everything above is visible before the lock reads even again
+        LONGS.setRelease(buf, H_LOCK, lock + 2);
+    }
+
+    /** A consistent copy of the snapshot body in buf (mapped from the file), or null if empty. */
+    static byte[] read(ByteBuffer buf) {
+        final ByteBuffer header = buf.duplicate().order(ByteOrder.nativeOrder());
+        while (true) {
+            final long before = (long) LONGS.getAcquire(buf, H_LOCK);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            final int length = header.getInt(H_LENGTH);
+            final byte[] body = length > 0 && length <= CAPACITY ? new byte[length] : null;
+            if (body != null) {
+                final ByteBuffer src = buf.duplicate();
+                src.position(HEADER);
+                src.get(body);
+            }
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getAcquire(buf, H_LOCK) == before) {
+                return body;
+            }
+        }
+    }
+
+    private void close() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close GOTR shared memory file", e);
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,228 @@
+package net.runelite.client.plugins.gotr;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams every published payload over a Unix domain socket, for consumers on the same machine.
+ *
+ * Each frame is [u32 length][u8 format][body], big-endian, where length counts the body only and
+ * format is {@link #FORMAT_JSON} or {@link #FORMAT_BINARY} ({@link GotrBinaryCodec}). Consumers
+ * only read; one that falls behind skips to the newest frames.
+ *
+ * UnixDomainSocketAddress is Java 16+, so it is reached reflectively and the transport stays off
+ * on older runtimes.
+ */
+@Slf4j
+@Singleton
+public class GotrSocketTransport {
+    static final File DEFAULT_PATH = new File(RuneLite.RUNELITE_DIR, "gotr.sock");
+    static final byte FORMAT_JSON = 1;
+    static final byte FORMAT_BINARY = 2;
+
+    private static final int FRAME_HEADER = 5;
+    private static final int CONSUMER_BUFFER = 8;
+
+    private final GotrJson json;
+    private final GotrStreamServer streamServer;
+    private final GuardiansOfTheRiftHelperConfig config;
+
+    private final List<Consumer> consumers = new CopyOnWriteArrayList<>();
+    private volatile ServerSocketChannel server;
+    private ExecutorService executor;
+    private Path path;
+    // the socket file this instance created, and the only one stop() removes
+    private Path bound;
+    private boolean binary;
+
+    @Inject
+    public GotrSocketTransport(GotrJson json, GotrStreamServer streamServer, GuardiansOfTheRiftHelperConfig config) {
+        this.json = json;
+        this.streamServer = streamServer;
+        this.config = config;
+    }
+
+    public synchronized void start() {
+        if (server != null) return;
+        path = config.socketPath().isEmpty() ? DEFAULT_PATH.toPath() : Paths.get(config.socketPath());
+        binary = config.socketBinary();
+        try {
+            // a socket file left by a crashed client would make bind fail
+            unlinkSocket(path);
+            server = openUnix(path);
+            bound = path;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("GOTR socket transport could not listen on {}", path, e);
+            return;
+        }
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "gotr-socket");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.execute(this::accept);
+        log.info("GOTR socket transport listening on {}", path);
+    }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        try {
+            server.close();
+            if (bound != null) {
+                unlinkSocket(bound);
+            }
+        } catch (IOException e) {
+            log.debug("Failed to close GOTR socket", e);
+        }
+        for (Consumer c : consumers) {
+            c.close();
+        }
+        consumers.clear();
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+        bound = null;
+    }
+
+    // Removes path only when it is a socket; the path is user configured, so anything else is refused.
+    private static void unlinkSocket(Path path) throws IOException {
+        final BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        if (!attrs.isOther()) {
+            throw new FileAlreadyExistsException(path.toString(), null, "exists and is not a socket");
+        }
+        Files.deleteIfExists(path);
+    }
+
+    public boolean hasConsumers() {
+        return server != null && !consumers.isEmpty();
+    }
+
+    /**
+     * Called from the payload worker after {@link GotrStreamServer#publish}, whose encoded body is
+     * reused when it is running. Nothing is encoded while no consumer is connected.
+     */
+    public void publish(GotrPayload payload) {
+        if (server == null || consumers.isEmpty()) return;
+        byte[] body = streamServer.latestBody(payload.getSeq(), binary);
+        if (body == null) {
+            body = binary ? GotrBinaryCodec.encode(payload, json) : json.gson().toJson(json.toTree(payload)).getBytes(StandardCharsets.UTF_8);
+        }
+        final ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + body.length);
+        frame.putInt(body.length);
+        frame.put(binary ? FORMAT_BINARY : FORMAT_JSON);
+        frame.put(body);
+        frame.flip();
+        final ByteBuffer shared = frame.asReadOnlyBuffer();
+        for (Consumer c : consumers) {
+            c.offer(shared.duplicate());
+        }
+    }
+
+    private void accept() {
+        final ServerSocketChannel s = server;
+        while (s != null && s.isOpen()) {
+            try {
+                final Consumer c = new Consumer(s.accept());
+                consumers.add(c);
+                executor.execute(c::run);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.debug("GOTR socket accept failed", e);
+            }
+        }
+    }
+
+    private static ServerSocketChannel openUnix(Path path) throws IOException {
+        try {
+            final Class<?> addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+            final SocketAddress address = (SocketAddress) addressClass.getMethod("of", Path.class).invoke(null, path);
+            final ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+            final ServerSocketChannel channel = (ServerSocketChannel) ServerSocketChannel.class
+                    .getMethod("open", ProtocolFamily.class)
+                    .invoke(null, unix);
+            channel.bind(address);
+            return channel;
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new UnsupportedOperationException("Unix domain sockets are unavailable", e.getCause());
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            throw new UnsupportedOperationException("Unix domain sockets need Java 16 or newer", e);
+        }
+    }
+
+    // One connected reader with its own writer thread and a bounded latest-wins queue.
+    private final class Consumer {
+        private final SocketChannel channel;
+        private final BlockingQueue<ByteBuffer> queue = new ArrayBlockingQueue<>(CONSUMER_BUFFER);
+
+        Consumer(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void offer(ByteBuffer frame) {
+            if (!queue.offer(frame)) {
+                queue.clear();
+                queue.offer(frame);
+            }
+        }
+
+        void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    final ByteBuffer frame = queue.take();
+                    while (frame.hasRemaining()) {
+                        channel.write(frame);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                log.debug("GOTR socket consumer disconnected: {}", e.getMessage());
+            } finally {
+                consumers.remove(this);
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // already gone
+            }
+        }
+    }
+}
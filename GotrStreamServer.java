@@ -0,0 +1,626 @@
+package net.runelite.client.plugins.gotr;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Companion endpoint next to SimpleHttpServer for the streaming payload formats.
+ *
+ * GET /gotr/payload            latest payload; JSON, or {@link GotrBinaryCodec} when the
+ *                              Accept header asks for application/x-gotr-binary
+ * GET /gotr/delta              latest delta frame (see {@link GotrDeltaEncoder})
+ * GET /gotr/delta?keyframe=1   full frame for the latest seq; the next published frame is a keyframe too
+ * GET /gotr/history?from=&to=  JSON array of the retained payloads with from <= seq <= to
+ * GET /gotr/events             Server-Sent Events, one event per published payload (?format=delta for deltas)
+ *
+ * /gotr/payload and /gotr/events accept ?fields=a,b,c to receive only those top-level fields. The
+ * costly fields every consumer asked for recently are reported by {@link #demandedFields()}. When
+ * the plugin only computes fields on demand, a /gotr/payload answer built before its fields were
+ * in demand names the ones it left out in X-Gotr-Omitted; the next payload carries them.
+ *
+ * /gotr/payload and /gotr/delta accept ?after=<seq>: the request blocks until a payload newer than
+ * seq is published, or answers 204 after ?timeout=<ms> (default 25s).
+ *
+ * Both carry an ETag derived from seq and answer 304 to a matching If-None-Match. Full payloads are
+ * sent gzip or deflate encoded when the client accepts it; each encoding is built at most once per
+ * published payload.
+ */
+@Slf4j
+@Singleton
+public class GotrStreamServer {
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String GZIP = "gzip";
+    private static final String DEFLATE = "deflate";
+    private static final long DEFAULT_POLL_TIMEOUT_MS = 25_000;
+    private static final long MAX_POLL_TIMEOUT_MS = 60_000;
+    private static final long SSE_KEEPALIVE_MS = 15_000;
+    private static final int SSE_BUFFER = 8;
+    private static final int HISTORY_MAX_ENTRIES = 16_384;
+    private static final int HISTORY_MAX_RESPONSE = 1_000;
+    private static final byte[] SSE_KEEPALIVE = ": keepalive\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final GotrJson json;
+    private final GuardiansOfTheRiftHelperConfig config;
+    private final GotrDeltaEncoder deltaEncoder = new GotrDeltaEncoder(50);
+    private final GotrFieldDemand demand = new GotrFieldDemand();
+    private final GotrFragmentCache fragments;
+
+    private volatile HttpServer server;
+    private ExecutorService executor;
+
+    // Each published payload is immutable once set here; readers never lock.
+    private final AtomicReference<Latest> latest = new AtomicReference<>(Latest.none());
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger polling = new AtomicInteger();
+    private volatile GotrPayloadHistory history;
+
+    @Inject
+    public GotrStreamServer(GotrJson json, GuardiansOfTheRiftHelperConfig config) {
+        this.json = json;
+        this.config = config;
+        this.fragments = new GotrFragmentCache(json.gson(), GotrPayload.class);
+    }
+
+    public synchronized void start() {
+        if (server != null) return;
+        final String host = config.bindAddress();
+        final int port = config.streamPort();
+        deltaEncoder.setKeyframeInterval(config.deltaKeyframeInterval());
+        deltaEncoder.reset();
+        fragments.clear();
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        } catch (IOException e) {
+            log.warn("GOTR stream server failed to bind {}:{}", host, port, e);
+            return;
+        }
+        if (config.historyMegabytes() > 0) {
+            history = new GotrPayloadHistory(config.historyMegabytes() << 20, HISTORY_MAX_ENTRIES);
+        }
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "gotr-stream");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/gotr/payload", this::handlePayload);
+        server.createContext("/gotr/delta", this::handleDelta);
+        server.createContext("/gotr/history", this::handleHistory);
+        server.createContext("/gotr/events", this::handleEvents);
+        server.start();
+        log.info("GOTR stream server listening on {}:{}", host, port);
+    }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        // releases long-polls parked on the last payload; they answer 204
+        latest.getAndSet(Latest.none()).next.completeExceptionally(new IllegalStateException("stream server stopped"));
+        server.stop(0);
+        executor.shutdownNow();
+        subscribers.clear();
+        server = null;
+        executor = null;
+        history = null;
+    }
+
+    /** Called once per built payload. */
+    public void publish(GotrPayload payload) {
+        if (server == null) return;
+        final GotrFragmentCache.Encoded encoded = fragments.encode(payload);
+        final JsonObject frame = deltaEncoder.encode(payload.getSeq(), encoded.tree);
+        final Latest l = new Latest(
+                payload,
+                encoded.fragments,
+                json.toBytes(frame),
+                frame.get("baseSeq").getAsLong());
+        final GotrPayloadHistory h = history;
+        if (h != null) {
+            h.append(l.seq, l.json.identity);
+        }
+        // wakes every long-poll parked on the previous payload
+        latest.getAndSet(l).next.complete(l);
+        for (Subscriber sub : subscribers) {
+            sub.offer(l);
+        }
+    }
+
+    /** The encoded body published for seq, or null when seq is not the latest payload. */
+    byte[] latestBody(long seq, boolean binary) {
+        final Latest l = latest.get();
+        if (l.seq != seq) return null;
+        return binary ? l.binary(json).identity : l.json.identity;
+    }
+
+    /**
+     * True while an event stream or long-poll is open, or any request arrived within
+     * {@link GotrFieldDemand#IDLE_MS}. Requests to SimpleHttpServer are not seen here.
+     */
+    public boolean hasConsumers() {
+        return server != null && (!subscribers.isEmpty() || polling.get() > 0 || !demand.isIdle());
+    }
+
+    /** Runs on the request thread when the first request after an idle spell arrives. */
+    public void setWakeListener(Runnable listener) {
+        demand.setWakeListener(listener);
+    }
+
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /** Costly fields any consumer asked for within {@link GotrFieldDemand#WINDOW_MS}. */
+    public long demandedFields() {
+        return demand.activeMask();
+    }
+
+    private void handlePayload(HttpExchange ex) throws IOException {
+        final String[] fields = requestedFields(ex);
+        final Latest l = awaitRequested(ex);
+        final boolean binary = wantsBinary(ex);
+        // every representation of this resource depends on both, 304s included
+        ex.getResponseHeaders().set("Vary", "Accept, Accept-Encoding");
+        if (l == null) {
+            send(ex, JSON, null);
+            return;
+        }
+        reportOmitted(ex, l, fields);
+        if (notModified(ex, etag(l.seq, binary ? "bin" : fields != null ? fieldsVariant(fields) : null))) {
+            return;
+        } else if (binary) {
+            sendEncoded(ex, GotrBinaryCodec.CONTENT_TYPE, l.binary(json));
+        } else if (fields != null) {
+            send(ex, JSON, project(l, fields));
+        } else {
+            sendEncoded(ex, JSON, l.json);
+        }
+    }
+
+    private void handleDelta(HttpExchange ex) throws IOException {
+        demand.touch(GotrField.ALL);
+        final Latest l = awaitRequested(ex);
+        if ("1".equals(queryParam(ex, "keyframe"))) {
+            deltaEncoder.requestKeyframe();
+            send(ex, JSON, l == null ? null : l.keyframe());
+            return;
+        }
+        if (l != null && notModified(ex, etag(l.seq, null))) {
+            return;
+        }
+        send(ex, JSON, l == null ? null : l.delta);
+    }
+
+    private void handleHistory(HttpExchange ex) throws IOException {
+        final GotrPayloadHistory h = history;
+        if (h == null) {
+            ex.sendResponseHeaders(404, -1);
+            ex.close();
+            return;
+        }
+        long from;
+        long to;
+        try {
+            final String f = queryParam(ex, "from");
+            final String t = queryParam(ex, "to");
+            from = f == null ? 0 : Long.parseLong(f);
+            to = t == null ? Long.MAX_VALUE : Long.parseLong(t);
+        } catch (NumberFormatException e) {
+            ex.sendResponseHeaders(400, -1);
+            ex.close();
+            return;
+        }
+        demand.touch(GotrField.ALL);
+
+        final List<byte[]> payloads = h.range(from, to, HISTORY_MAX_RESPONSE);
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write('[');
+        for (int i = 0; i < payloads.size(); i++) {
+            if (i > 0) body.write(',');
+            body.write(payloads.get(i));
+        }
+        body.write(']');
+        // Lets a reconnecting consumer tell whether the range it asked for is complete.
+        ex.getResponseHeaders().set("X-Gotr-Oldest-Seq", Long.toString(h.oldestSeq()));
+        ex.getResponseHeaders().set("X-Gotr-Newest-Seq", Long.toString(h.newestSeq()));
+        send(ex, JSON, body.toByteArray());
+    }
+
+    private void handleEvents(HttpExchange ex) throws IOException {
+        final boolean delta = "delta".equals(queryParam(ex, "format"));
+        final String[] fields = delta ? null : requestedFields(ex);
+        final long mask = fields == null ? GotrField.ALL : GotrField.parse(String.join(",", fields));
+        final Subscriber sub = new Subscriber();
+        // Registered before anything is sent so no publish falls between the current payload
+        // and the first queued one; the seq check below drops the overlap.
+        subscribers.add(sub);
+        final Latest first = current();
+        if (first != null) {
+            sub.offer(first);
+        }
+        long lastSent = -1;
+        try {
+            ex.getResponseHeaders().set("Content-Type", "text/event-stream");
+            ex.getResponseHeaders().set("Cache-Control", "no-cache");
+            ex.sendResponseHeaders(200, 0);
+            // closed with the exchange below
+            final OutputStream os = ex.getResponseBody();
+            while (!Thread.currentThread().isInterrupted()) {
+                // An open stream keeps its fields in demand.
+                demand.touch(mask);
+                final Latest l = sub.queue.poll(SSE_KEEPALIVE_MS, TimeUnit.MILLISECONDS);
+                if (l == null) {
+                    os.write(SSE_KEEPALIVE);
+                } else if (l.seq <= lastSent) {
+                    continue;
+                } else {
+                    os.write(("id: " + l.seq + "\nevent: " + (delta ? "delta" : "payload") + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+                    if (delta) {
+                        // A delta is only usable on top of its base; a subscriber that just joined
+                        // or lost frames to an overflow gets the full frame instead.
+                        os.write(l.deltaBase == l.seq || l.deltaBase == lastSent ? l.delta : l.keyframe());
+                    } else {
+                        os.write(fields != null ? project(l, fields) : l.json.identity);
+                    }
+                    os.write('\n');
+                    os.write('\n');
+                    lastSent = l.seq;
+                }
+                os.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.debug("SSE subscriber disconnected: {}", e.getMessage());
+        } finally {
+            subscribers.remove(sub);
+            ex.close();
+        }
+    }
+
+    private Latest current() {
+        final Latest l = latest.get();
+        return l.seq < 0 ? null : l;
+    }
+
+    // Honours ?after=<seq>; without it, answers with whatever is latest right now.
+    private Latest awaitRequested(HttpExchange ex) {
+        final String after = queryParam(ex, "after");
+        if (after == null) {
+            return current();
+        }
+        final long afterSeq;
+        long timeoutMs = DEFAULT_POLL_TIMEOUT_MS;
+        try {
+            afterSeq = Long.parseLong(after);
+            final String timeout = queryParam(ex, "timeout");
+            if (timeout != null) {
+                timeoutMs = Math.max(0, Math.min(MAX_POLL_TIMEOUT_MS, Long.parseLong(timeout)));
+            }
+        } catch (NumberFormatException e) {
+            return current();
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Latest l = latest.get();
+        polling.incrementAndGet();
+        try {
+            while (l.seq <= afterSeq) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                try {
+                    l = l.next.get(remaining, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    return null;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            // ?after=-2 and below pass the loop before anything was published
+            return l.seq < 0 ? null : l;
+        } finally {
+            polling.decrementAndGet();
+        }
+    }
+
+    // Parses ?fields= and records the demand; null means the whole payload.
+    private String[] requestedFields(HttpExchange ex) {
+        final String raw = queryParam(ex, "fields");
+        if (raw == null || raw.isEmpty()) {
+            demand.touch(GotrField.ALL);
+            return null;
+        }
+        final String param = URLDecoder.decode(raw, StandardCharsets.UTF_8);
+        final String[] fields = param.trim().split("\\s*,\\s*");
+        demand.touch(GotrField.parse(param));
+        return fields;
+    }
+
+    // Names the requested costly fields the payload was built without because nobody had asked for them yet.
+    private static void reportOmitted(HttpExchange ex, Latest l, String[] fields) {
+        final long omitted = (fields == null ? GotrField.ALL : GotrField.parse(String.join(",", fields))) & ~l.fields;
+        if (omitted == 0) return;
+        final StringJoiner names = new StringJoiner(",");
+        for (GotrField f : GotrField.all()) {
+            if (f.in(omitted)) {
+                names.add(f.jsonName());
+            }
+        }
+        ex.getResponseHeaders().set("X-Gotr-Omitted", names.toString());
+    }
+
+    // Joins the pre-encoded fragments of the requested fields; nothing is serialized per request.
+    private static byte[] project(Latest l, String[] fields) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        out.write('{');
+        boolean first = true;
+        boolean hasSeq = false;
+        for (int i = 0; i < fields.length; i++) {
+            final byte[] fragment = l.fragments.get(fields[i]);
+            if (fragment == null || Arrays.asList(fields).subList(0, i).contains(fields[i])) continue;
+            if (!first) out.write(',');
+            out.writeBytes(fragment);
+            first = false;
+            hasSeq |= fields[i].equals("seq");
+        }
+        // Consumers always need to know which tick they are looking at.
+        if (!hasSeq && l.fragments.containsKey("seq")) {
+            if (!first) out.write(',');
+            out.writeBytes(l.fragments.get("seq"));
+        }
+        out.write('}');
+        return out.toByteArray();
+    }
+
+    private static boolean wantsBinary(HttpExchange ex) {
+        final String accept = ex.getRequestHeaders().getFirst("Accept");
+        return accept != null && accept.contains(GotrBinaryCodec.CONTENT_TYPE);
+    }
+
+    static String queryParam(HttpExchange ex, String name) {
+        final String query = ex.getRequestURI().getRawQuery();
+        if (query == null) return null;
+        for (String part : query.split("&")) {
+            final int eq = part.indexOf('=');
+            final String key = eq < 0 ? part : part.substring(0, eq);
+            if (key.equals(name)) {
+                return eq < 0 ? "" : part.substring(eq + 1);
+            }
+        }
+        return null;
+    }
+
+    // A projection is a different representation of the same seq; '+' keeps the tag free of the
+    // commas If-None-Match is split on.
+    private static String fieldsVariant(String[] fields) {
+        return "f-" + String.join("+", new TreeSet<>(Arrays.asList(fields)));
+    }
+
+    // Weak: the same seq always describes the same state, whatever the byte representation.
+    private static String etag(long seq, String variant) {
+        return "W/\"" + seq + (variant == null ? "" : "-" + variant) + "\"";
+    }
+
+    // Sets the ETag and, when If-None-Match already names it, answers 304.
+    private static boolean notModified(HttpExchange ex, String etag) throws IOException {
+        ex.getResponseHeaders().set("ETag", etag);
+        ex.getResponseHeaders().set("Cache-Control", "no-cache");
+        final String inm = ex.getRequestHeaders().getFirst("If-None-Match");
+        if (inm == null) {
+            return false;
+        }
+        final String opaque = etag.substring(2);
+        for (String tag : inm.split(",")) {
+            final String t = tag.trim();
+            if (t.equals("*") || t.equals(etag) || t.equals(opaque)) {
+                ex.sendResponseHeaders(304, -1);
+                ex.close();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // gzip, deflate or null for identity, from Accept-Encoding; codings with q=0 are refused.
+    private static String acceptedEncoding(HttpExchange ex) {
+        final String header = ex.getRequestHeaders().getFirst("Accept-Encoding");
+        if (header == null) return null;
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String part : header.split(",")) {
+            final String[] params = part.trim().split("\\s*;\\s*");
+            final String coding = params[0].toLowerCase(Locale.ROOT);
+            boolean refused = false;
+            for (int i = 1; i < params.length; i++) {
+                if (params[i].startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(params[i].substring(2)) <= 0;
+                    } catch (NumberFormatException ignored) {
+                        refused = true;
+                    }
+                }
+            }
+            if (refused) continue;
+            if (coding.equals(GZIP) || coding.equals("x-gzip") || coding.equals("*")) gzip = true;
+            else if (coding.equals(DEFLATE)) deflate = true;
+        }
+        return gzip ? GZIP : deflate ? DEFLATE : null;
+    }
+
+    private static void sendEncoded(HttpExchange ex, String contentType, Encoded body) throws IOException {
+        final String encoding = acceptedEncoding(ex);
+        ex.getResponseHeaders().set("Vary", "Accept, Accept-Encoding");
+        if (encoding == null) {
+            send(ex, contentType, body.identity);
+            return;
+        }
+        ex.getResponseHeaders().set("Content-Encoding", encoding);
+        send(ex, contentType, body.get(encoding));
+    }
+
+    private static void send(HttpExchange ex, String contentType, byte[] body) throws IOException {
+        try {
+            if (body == null) {
+                ex.sendResponseHeaders(204, -1);
+                return;
+            }
+            ex.getResponseHeaders().set("Content-Type", contentType);
+            if (!ex.getResponseHeaders().containsKey("Vary")) {
+                ex.getResponseHeaders().set("Vary", "Accept");
+            }
+            ex.sendResponseHeaders(200, body.length);
+            try (OutputStream os = ex.getResponseBody()) {
+                os.write(body);
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    // Bounded per-subscriber buffer; a subscriber that falls behind only gets the newest payload,
+    // which handleEvents sends as a keyframe to delta subscribers.
+    private static final class Subscriber {
+        final BlockingQueue<Latest> queue = new ArrayBlockingQueue<>(SSE_BUFFER);
+
+        void offer(Latest l) {
+            if (!queue.offer(l)) {
+                queue.clear();
+                queue.offer(l);
+            }
+        }
+    }
+
+    // One payload body plus its compressed forms, each built by the first request that wants it.
+    // Two racing first requests may both compress; either result is identical, so no lock is taken.
+    private static final class Encoded {
+        final byte[] identity;
+        private volatile byte[] gzip;
+        private volatile byte[] deflate;
+
+        Encoded(byte[] identity) {
+            this.identity = identity;
+        }
+
+        byte[] get(String encoding) {
+            if (GZIP.equals(encoding)) {
+                byte[] b = gzip;
+                if (b == null) gzip = b = compress(true);
+                return b;
+            }
+            byte[] b = deflate;
+            if (b == null) deflate = b = compress(false);
+            return b;
+        }
+
+        private byte[] compress(boolean gzipFormat) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(identity.length / 4 + 64);
+            try (OutputStream os = gzipFormat ? new GZIPOutputStream(out) : new DeflaterOutputStream(out)) {
+                os.write(identity);
+            } catch (IOException e) {
+                // ByteArrayOutputStream does not throw
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    // Everything served for one seq. JSON and the delta frame are encoded at publish; the binary
+    // encoding, like the compressed ones, on first request. The byte arrays are never written
+    // after construction. next completes when the following payload is published.
+    private static final class Latest {
+        final long seq;
+        // GotrField mask the payload was built with
+        final long fields;
+        final Map<String, byte[]> fragments;
+        final Encoded json;
+        // kept for the binary encoding only
+        private final GotrPayload payload;
+        private volatile Encoded binary;
+        final byte[] delta;
+        // seq the delta frame patches; equal to seq for a keyframe
+        final long deltaBase;
+        final CompletableFuture<Latest> next = new CompletableFuture<>();
+        private volatile byte[] keyframe;
+
+        Latest(GotrPayload payload, Map<String, byte[]> fragments, byte[] delta, long deltaBase) {
+            this.seq = payload == null ? -1 : payload.getSeq();
+            this.fields = payload == null ? 0 : payload.getFields();
+            this.payload = payload;
+            this.fragments = fragments;
+            this.json = fragments == null ? null : new Encoded(join(fragments));
+            this.delta = delta;
+            this.deltaBase = deltaBase;
+        }
+
+        /** Placeholder before the first publish; long-polls park on its next. */
+        static Latest none() {
+            return new Latest(null, null, null, -1);
+        }
+
+        Encoded binary(GotrJson codec) {
+            Encoded b = binary;
+            if (b == null) binary = b = new Encoded(GotrBinaryCodec.encode(payload, codec));
+            return b;
+        }
+
+        // A keyframe in the GotrDeltaEncoder frame layout, wrapped around the already encoded payload.
+        byte[] keyframe() {
+            byte[] b = keyframe;
+            if (b == null) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream(json.identity.length + 64);
+                out.writeBytes(("{\"seq\":" + seq + ",\"baseSeq\":" + seq + ",\"keyframe\":true,\"data\":").getBytes(StandardCharsets.UTF_8));
+                out.writeBytes(json.identity);
+                out.write('}');
+                keyframe = b = out.toByteArray();
+            }
+            return b;
+        }
+
+        private static byte[] join(Map<String, byte[]> fragments) {
+            int size = 2 + Math.max(0, fragments.size() - 1);
+            for (byte[] f : fragments.values()) size += f.length;
+            final byte[] out = new byte[size];
+            int pos = 0;
+            out[pos++] = '{';
+            for (byte[] f : fragments.values()) {
+                if (pos > 1) out[pos++] = ',';
+                System.arraycopy(f, 0, out, pos, f.length);
+                pos += f.length;
+            }
+            out[pos] = '}';
+            return out;
+        }
+    }
+}
@@ -7,12 +7,9 @@ import net.runelite.client.game.ItemManager;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.time.Instant;
-import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.ToIntFunction;
 
 public class GuardianInfo {
     public static final GuardianInfo AIR = new GuardianInfo("Air", 43701, 34760,34748, 1, ItemID.AIR_RUNE, 26887, 4353, false, CellType.Weak, x -> x.notifyAirGuardian());
@@ -30,8 +27,14 @@ public class GuardianInfo {
 
     public static final Set<GuardianInfo> ALL = ImmutableSet.of(AIR, MIND, WATER, EARTH, FIRE, BODY, COSMIC, CHAOS, NATURE, LAW, DEATH, BLOOD);
 
-    public static final Map<Integer, Integer> TALISMAN_TO_GUARDIAN_ID =
-            ALL.stream().collect(Collectors.toMap(gi -> gi.talismanId, gi -> gi.gameObjectId));
+    // Lookups by every id a guardian carries. Tables map an id to its index in BY_INDEX plus one.
+    private static final GuardianInfo[] BY_INDEX = ALL.toArray(new GuardianInfo[0]);
+    private static final GotrIdTable BY_GAME_OBJECT = index(g -> g.gameObjectId);
+    private static final GotrIdTable BY_SPRITE = index(g -> g.spriteId);
+    private static final GotrIdTable BY_TALISMAN = index(g -> g.talismanId);
+    private static final GotrIdTable BY_ALTAR = index(g -> g.altarGameObjectId);
+    private static final GotrIdTable BY_ALTAR_PORTAL = index(g -> g.altarPortalGameObjectId);
+    private static final GotrIdTable BY_RUNE = index(g -> g.runeId);
 
     public String name;
     public int gameObjectId;
@@ -45,8 +48,6 @@ public class GuardianInfo {
     public CellType cellType;
     public Function<GuardiansOfTheRiftHelperConfig, Notification> notifyFunc;
 
-    public Optional<Instant> spawnTime = Optional.empty();
-
     public GuardianInfo(String name, int gameObjectId, int altarGameObjectId, int altarPortalGameObjectId, int levelRequired, int runeId, int talismanId, int spriteId, boolean isCatalytic, CellType cellType, Function<GuardiansOfTheRiftHelperConfig, Notification> notifyFunc) {
         this.name = name;
         this.gameObjectId = gameObjectId;
@@ -61,20 +62,66 @@ public class GuardianInfo {
         this.notifyFunc = notifyFunc;
     }
 
-    public BufferedImage getRuneImage(ItemManager itemManager) {
-        return itemManager.getImage(runeId);
+    public static final int COUNT = BY_INDEX.length;
+
+    /** Position of the guardian with this game object id in {@link #ALL}, or -1. */
+    static int indexOfGameObject(int id) {
+        return BY_GAME_OBJECT.get(id) - 1;
     }
 
-    public BufferedImage getTalismanImage(ItemManager itemManager) {
-        return itemManager.getImage(talismanId);
+    /** Position of the guardian this talisman belongs to in {@link #ALL}, or -1. */
+    static int indexOfTalisman(int id) {
+        return BY_TALISMAN.get(id) - 1;
+    }
+
+    static GuardianInfo byIndex(int index) {
+        return BY_INDEX[index];
     }
 
-    public void spawn() {
-        spawnTime = Optional.of(Instant.now());
+    /** The guardian with this id, or null. */
+    public static GuardianInfo byGameObjectId(int id) {
+        return lookup(BY_GAME_OBJECT, id);
     }
 
-    public void despawn() {
-        spawnTime = Optional.empty();
+    public static GuardianInfo bySpriteId(int id) {
+        return lookup(BY_SPRITE, id);
+    }
+
+    public static GuardianInfo byTalismanId(int id) {
+        return lookup(BY_TALISMAN, id);
+    }
+
+    public static GuardianInfo byAltarGameObjectId(int id) {
+        return lookup(BY_ALTAR, id);
+    }
+
+    public static GuardianInfo byAltarPortalGameObjectId(int id) {
+        return lookup(BY_ALTAR_PORTAL, id);
+    }
+
+    public static GuardianInfo byRuneId(int id) {
+        return lookup(BY_RUNE, id);
+    }
+
+    private static GuardianInfo lookup(GotrIdTable table, int id) {
+        final int i = table.get(id);
+        return i == GotrIdTable.NONE ? null : BY_INDEX[i - 1];
+    }
+
+    private static GotrIdTable index(ToIntFunction<GuardianInfo> id) {
+        final GotrIdTable.Builder b = GotrIdTable.builder();
+        for (int i = 0; i < BY_INDEX.length; i++) {
+            b.put(id.applyAsInt(BY_INDEX[i]), i + 1);
+        }
+        return b.build();
+    }
+
+    public BufferedImage getRuneImage(ItemManager itemManager) {
+        return itemManager.getImage(runeId);
+    }
+
+    public BufferedImage getTalismanImage(ItemManager itemManager) {
+        return itemManager.getImage(talismanId);
     }
 
     public Color getColor(GuardiansOfTheRiftHelperConfig config, int level) {
@@ -694,4 +694,142 @@ public interface GuardiansOfTheRiftHelperConfig extends Config {
             section = simpleServerSettings
     )
     default String pin() { return "0000"; }
+
+    @ConfigItem(
+            keyName = "streamServer",
+            name = "Stream server",
+            description = "Serve the streaming payload formats (binary, delta) on a second port",
+            position = 3,
+            section = simpleServerSettings
+    )
+    default boolean streamServer() { return false; }
+
+    @ConfigItem(
+            keyName = "streamPort",
+            name = "Stream port",
+            description = "Port for the stream server",
+            position = 4,
+            section = simpleServerSettings
+    )
+    default int streamPort() { return 8766; }
+
+    @ConfigItem(
+            keyName = "deltaKeyframeInterval",
+            name = "Delta keyframe interval",
+            description = "Send a full keyframe every this many delta frames",
+            position = 5,
+            section = simpleServerSettings
+    )
+    @Range(min = 1, max = 1000)
+    default int deltaKeyframeInterval() { return 50; }
+
+    @ConfigItem(
+            keyName = "lowLatencyFlush",
+            name = "Low latency flush",
+            description = "Publish immediately on rift start, portal entry and rewards instead of waiting for the next game tick",
+            position = 6,
+            section = simpleServerSettings
+    )
+    default boolean lowLatencyFlush() { return false; }
+
+    @ConfigItem(
+            keyName = "computeOnDemand",
+            name = "Compute on demand",
+            description = "Only build payload fields that a stream server consumer asked for in the last few seconds. Has no effect while the socket, shared memory or session recording is in use. Leave off if anything still reads the main HTTP port",
+            position = 7,
+            section = simpleServerSettings
+    )
+    default boolean computeOnDemand() { return false; }
+
+    @ConfigItem(
+            keyName = "historyMegabytes",
+            name = "Payload history (MB)",
+            description = "Off-heap memory kept for recent payloads served by /gotr/history. 0 disables it",
+            position = 8,
+            section = simpleServerSettings
+    )
+    @Range(min = 0, max = 512)
+    default int historyMegabytes() { return 0; }
+
+    @ConfigItem(
+            keyName = "recordSessions",
+            name = "Record sessions",
+            description = "Record every tick and raw event of each game to .runelite/gotr-sessions for offline analysis",
+            position = 9,
+            section = simpleServerSettings
+    )
+    default boolean recordSessions() { return false; }
+
+    @ConfigItem(
+            keyName = "socketTransport",
+            name = "Unix socket stream",
+            description = "Also stream every payload over a Unix domain socket, for consumers on the same machine. Needs Java 16+",
+            position = 10,
+            section = simpleServerSettings
+    )
+    default boolean socketTransport() { return false; }
+
+    @ConfigItem(
+            keyName = "socketPath",
+            name = "Unix socket path",
+            description = "Path of the Unix domain socket. Empty uses .runelite/gotr.sock",
+            position = 11,
+            section = simpleServerSettings
+    )
+    default String socketPath() { return ""; }
+
+    @ConfigItem(
+            keyName = "socketBinary",
+            name = "Unix socket binary frames",
+            description = "Send the compact binary payload format over the Unix socket instead of JSON",
+            position = 12,
+            section = simpleServerSettings
+    )
+    default boolean socketBinary() { return false; }
+
+    @ConfigItem(
+            keyName = "sharedMemory",
+            name = "Shared memory snapshot",
+            description = "Also write every payload to the memory-mapped file .runelite/gotr.shm, guarded by a seqlock, for local consumers that poll it",
+            position = 13,
+            section = simpleServerSettings
+    )
+    default boolean sharedMemory() { return false; }
+
+    @ConfigItem(
+            keyName = "sharedMemoryBinary",
+            name = "Shared memory binary format",
+            description = "Write the compact binary payload format to shared memory instead of JSON",
+            position = 14,
+            section = simpleServerSettings
+    )
+    default boolean sharedMemoryBinary() { return true; }
+
+    @ConfigItem(
+            keyName = "pauseWhenIdle",
+            name = "Pause when idle",
+            description = "Stop building payloads while no stream server, Unix socket, shared memory or recording consumer is active, apart from keep-alives. Leave off if anything still reads the main HTTP port",
+            position = 15,
+            section = simpleServerSettings
+    )
+    default boolean pauseWhenIdle() { return false; }
+
+    @ConfigItem(
+            keyName = "idleKeepAliveTicks",
+            name = "Idle keep-alive (ticks)",
+            description = "While paused, still publish one payload every this many game ticks. 0 publishes nothing until a consumer returns",
+            position = 16,
+            section = simpleServerSettings
+    )
+    @Range(min = 0, max = 1000)
+    default int idleKeepAliveTicks() { return 10; }
+
+    @ConfigItem(
+            keyName = "dormantOutsideRift",
+            name = "Dormant outside the rift",
+            description = "Outside the Guardians of the Rift area and its altars, skip all per-tick work and publish only login and region state",
+            position = 17,
+            section = simpleServerSettings
+    )
+    default boolean dormantOutsideRift() { return false; }
 }
@@ -14,7 +14,7 @@ import java.awt.*;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Comparator;
-import java.util.Set;
+import java.util.List;
 
 public class GuardiansOfTheRiftHelperOverlay extends Overlay {
     private static final Color GREEN = new Color(0, 255, 0, 150);
@@ -83,13 +83,14 @@ public class GuardiansOfTheRiftHelperOverlay extends Overlay {
         }
     }
 
-    private CellType bestCell(final Set<GameObject> activeGuardians) {
+    private CellType bestCell(final List<GameObject> activeGuardians) {
         var best = CellType.Weak;
         for (final GameObject guardian : activeGuardians) {
             if (guardian == null) continue;
             var hull = guardian.getConvexHull();
             if (hull == null) continue;
-            var info = getGuardianInfo(guardian.getId());
+            var info = GuardianInfo.byGameObjectId(guardian.getId());
+            if (info == null) continue;
 
             if (info.cellType.compareTo(best) > 0 && info.levelRequired < client.getBoostedSkillLevel(Skill.RUNECRAFT)) {
                 if (info.cellType == CellType.Overcharged) {
@@ -108,9 +109,8 @@ public class GuardiansOfTheRiftHelperOverlay extends Overlay {
     private void renderActiveGuardians(Graphics2D graphics) {
         if (!plugin.isInMainRegion()) return;
 
-        var activeGuardians = plugin.getActiveGuardians();
-        var guardians = plugin.getGuardians();
-        var inventoryTalismans = plugin.getInventoryTalismans();
+        var tracker = plugin.getGuardianTracker();
+        var activeGuardians = tracker.active();
 
         var balance = PointBalance.BALANCED;
         CellType bestCell = null;
@@ -124,7 +124,8 @@ public class GuardiansOfTheRiftHelperOverlay extends Overlay {
             var hull = guardian.getConvexHull();
             if (hull == null) continue;
 
-            var info = getGuardianInfo(guardian.getId());
+            var info = GuardianInfo.byGameObjectId(guardian.getId());
+            if (info == null) continue;
 
             if (config.pointBalanceHelper()) {
                 if (!info.isCatalytic && balance == PointBalance.NEED_CATALYTIC) {
@@ -153,10 +154,11 @@ public class GuardiansOfTheRiftHelperOverlay extends Overlay {
                 OverlayUtil.renderImageLocation(client, graphics, guardian.getLocalLocation(), img, RUNE_IMAGE_OFFSET);
             }
 
-            if (!info.spawnTime.isPresent()) continue;
+            var spawnTime = plugin.getGuardianSpawnTime(info);
+            if (!spawnTime.isPresent()) continue;
 
             var imgLocation = Perspective.getCanvasImageLocation(client, guardian.getLocalLocation(), img, RUNE_IMAGE_OFFSET);
-            var millis = ChronoUnit.MILLIS.between(Instant.now(), info.spawnTime.get().plusMillis((long) Math.floor(GUARDIAN_TICK_COUNT * 600)));
+            var millis = ChronoUnit.MILLIS.between(Instant.now(), spawnTime.get().plusMillis((long) Math.floor(GUARDIAN_TICK_COUNT * 600)));
             var timeRemainingText = "" + (Math.round(millis / 100) / 10d);
             var strBounds = graphics.getFontMetrics().getStringBounds(timeRemainingText, graphics);
             var textLocation = Perspective.getCanvasTextLocation(client, graphics, guardian.getLocalLocation(), timeRemainingText, RUNE_IMAGE_OFFSET + 60);
@@ -165,22 +167,6 @@ public class GuardiansOfTheRiftHelperOverlay extends Overlay {
             textLocation = new Point((int) (imgLocation.getX() + img.getWidth() / 2d - strBounds.getWidth() / 2d), textLocation.getY());
             OverlayUtil.renderTextLocation(graphics, textLocation, timeRemainingText, Color.WHITE);
         }
-
-        for (int talisman : inventoryTalismans) {
-            var talismanGuardian = guardians.stream().filter(x -> getGuardianInfo(x.getId()).talismanId == talisman).findFirst();
-
-            if (talismanGuardian.isPresent() && activeGuardians.stream().noneMatch(x -> x.getId() == talismanGuardian.get().getId())) {
-                var talismanGuardianInfo = getGuardianInfo(talismanGuardian.get().getId());
-                if (config.guardianOutline()) {
-                    modelOutlineRenderer.drawOutline(talismanGuardian.get(), config.guardianBorderWidth(), talismanGuardianInfo.getColor(config, client.getBoostedSkillLevel(Skill.RUNECRAFT)), config.guardianOutlineFeather());
-                }
-                OverlayUtil.renderImageLocation(client, graphics, talismanGuardian.get().getLocalLocation(), talismanGuardianInfo.getTalismanImage(itemManager), RUNE_IMAGE_OFFSET);
-            }
-        }
-    }
-
-    private GuardianInfo getGuardianInfo(int gameObjectId) {
-        return GuardianInfo.ALL.stream().filter(x -> x.gameObjectId == gameObjectId).findFirst().get();
     }
 
     private void highlightGreatGuardian(Graphics2D graphics) {
@@ -221,11 +207,12 @@ public class GuardiansOfTheRiftHelperOverlay extends Overlay {
             return;
         }
 
-        if (plugin.getChargedCellType().isEmpty()) {
+        final CellType chargedCell = plugin.getChargedCellType();
+        if (chargedCell == null) {
             return;
         }
 
-        if (config.outlineCellType().ordinal() > plugin.getChargedCellType().get().ordinal()) {
+        if (config.outlineCellType().ordinal() > chargedCell.ordinal()) {
             return;
         }
 
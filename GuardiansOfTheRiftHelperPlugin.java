@@ -11,6 +11,7 @@ import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.*;
 import net.runelite.api.widgets.Widget;
 import net.runelite.client.Notifier;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.game.ItemManager;
@@ -23,6 +24,7 @@ import net.runelite.api.gameval.NpcID;
 
 import javax.inject.Inject;
 import java.awt.*;
+import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -30,7 +32,6 @@ import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Slf4j
 @PluginDescriptor(
@@ -42,6 +43,9 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     @Inject
     private Client client;
 
+    @Inject
+    private ClientThread clientThread;
+
     @Inject
     private GuardiansOfTheRiftHelperConfig config;
 
@@ -69,30 +73,30 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     @Inject
     private SimpleHttpServer httpServer;
 
-    private static final int MINIGAME_MAIN_REGION = 14484;
+    @Inject
+    private GotrStreamServer streamServer;
+
+    @Inject
+    private GotrPayloadWorker payloadWorker;
 
-    private static final Set<Integer> GUARDIAN_IDS = GuardianInfo.ALL.stream().mapToInt(x -> x.gameObjectId).boxed().collect(Collectors.toSet());
-    private static final Set<Integer> RUNE_IDS = GuardianInfo.ALL.stream().mapToInt(x -> x.runeId).boxed().collect(Collectors.toSet());
-    private static final Set<Integer> TALISMAN_IDS = GuardianInfo.ALL.stream().mapToInt(x -> x.talismanId).boxed().collect(Collectors.toSet());
-    private static final Set<Integer> ALTAR_IDS = GuardianInfo.ALL.stream().mapToInt(x -> x.altarGameObjectId).boxed().collect(Collectors.toSet());
-    private static final Set<Integer> ALTAR_PORTAL_IDS = GuardianInfo.ALL.stream().mapToInt(x -> x.altarPortalGameObjectId).boxed().collect(Collectors.toSet());
+    @Inject
+    private GotrSessionRecorder recorder;
 
-    private static final Set<Integer> CHARGED_CELL_ITEM_IDS = CellTileInfo.ALL.stream().mapToInt(x -> x.itemId).boxed().collect(Collectors.toSet());
-    private static final Set<Integer> CELL_TILE_IDS = CellTileInfo.ALL.stream().mapToInt(x -> x.groundObjectId).boxed().collect(Collectors.toSet());
+    @Inject
+    private GotrSocketTransport socketTransport;
 
-    private static final int GREAT_GUARDIAN_ID = 11403;
+    @Inject
+    private GotrSharedSnapshot sharedSnapshot;
+
+    private static final int MINIGAME_MAIN_REGION = 14484;
 
-    private static final int CATALYTIC_GUARDIAN_STONE_ID = 26880;
-    private static final int ELEMENTAL_GUARDIAN_STONE_ID = 26881;
-    private static final int POLYELEMENTAL_GUARDIAN_STONE_ID = 26941;
+
+    private static final int GREAT_GUARDIAN_ID = 11403;
 
     private static final int ELEMENTAL_ESSENCE_PILE_ID = 43722;
     private static final int CATALYTIC_ESSENCE_PILE_ID = 43723;
 
-    private static final int UNCHARGED_CELL_ITEM_ID = 26882;
     private static final int UNCHARGED_CELL_GAMEOBJECT_ID = 43732;
-    private static final int CHISEL_ID = 1755;
-    private static final int OVERCHARGED_CELL_ID = 26886;
 
     private static final int HUGE_GUARDRIAN_REMAINS_AREA_WEST_BOUNDARY = 3587;
     private static final int HUGE_GUARDRIAN_REMAINS_AREA_EAST_BOUNDARY = 3594;
@@ -101,29 +105,40 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
 
     private static final int DEPOSIT_POOL_ID = 43696;
 
-    private static final int GUARDIAN_ACTIVE_ANIM = 9363;
-
-    private static final int PARENT_WIDGET_ID = 48889858;
-    private static final int CATALYTIC_RUNE_WIDGET_ID = 48889876;
-    private static final int ELEMENTAL_RUNE_WIDGET_ID = 48889879;
-    private static final int GUARDIAN_COUNT_WIDGET_ID = 48889886;
-    private static final int PORTAL_WIDGET_ID = 48889882;
-    private static final int PORTAL_TEXT_WIDGET_ID = 48889884;
-    private static final int GUARDIAN_ENERGY_WIDGET_ID = 48889874;
-
     private final static int PORTAL_SPRITE_ID = 4368;
 
+    // What a scene object is to the plugin, as flags; most objects in a scene map to none.
+    private static final int ROLE_GUARDIAN = 1;
+    private static final int ROLE_HUGE_GUARDIAN = 1 << 1;
+    private static final int ROLE_LARGE_GUARDIAN = 1 << 2;
+    private static final int ROLE_ALTAR = 1 << 3;
+    private static final int ROLE_ALTAR_PORTAL = 1 << 4;
+    private static final int ROLE_UNCHARGED_CELL_TABLE = 1 << 5;
+    private static final int ROLE_DEPOSIT_POOL = 1 << 6;
+    private static final int ROLE_ELEMENTAL_PILE = 1 << 7;
+    private static final int ROLE_CATALYTIC_PILE = 1 << 8;
+    private static final int ROLE_PORTAL = 1 << 9;
+    private static final int ROLE_RETURN_PORTAL = 1 << 10;
+    private static final int ROLE_BARRIER = 1 << 11;
+    private static final int ROLE_RUBBLE_TOP = 1 << 12;
+    private static final int ROLE_RUBBLE_BOTTOM = 1 << 13;
+    private static final int ROLE_BANK_CHEST = 1 << 14;
+    private static final int ROLE_WORKBENCH = 1 << 15;
+    private static final int ROLE_CELL_TILE = 1 << 16;
+    private static final int ROLE_RUBBLE = ROLE_RUBBLE_TOP | ROLE_RUBBLE_BOTTOM;
+
+    private static final GotrIdTable OBJECT_ROLES = objectRoles();
+
     private static final String REWARD_POINT_REGEX = "Total elemental energy:[^>]+>([\\d,]+).*Total catalytic energy:[^>]+>([\\d,]+).";
     private static final Pattern REWARD_POINT_PATTERN = Pattern.compile(REWARD_POINT_REGEX);
     private static final String CHECK_POINT_REGEX = "You have (\\d+) catalytic energy and (\\d+) elemental energy";
     private static final Pattern CHECK_POINT_PATTERN = Pattern.compile(CHECK_POINT_REGEX);
     private static final String REWARDED_REGEX = "You've been awarded";
     private static final Pattern REWARDED_PATTERN = Pattern.compile(REWARDED_REGEX);
+    private static final Pattern GUARDIAN_ENERGY_PATTERN = Pattern.compile("(\\d+)%");
 
     private static final String POUCH_DECAYED_MESSAGE = "Your pouch has decayed through use.";
 
-    private static final int DIALOG_WIDGET_GROUP = 229;
-    private static final int DIALOG_WIDGET_MESSAGE = 1;
     private static final String BARRIER_DIALOG_FINISHING_UP = "It looks like the adventurers within are just finishing up. You must<br>wait until they are done to join.";
 
     private static final int COLOSSAL_CAPACITY = 40;
@@ -143,13 +158,17 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     private static final WorldPoint CHAOS_ALTAR_PORTAL_TILE = new WorldPoint(2281, 4837, 0);
 
     private final AtomicLong seq = new AtomicLong();
+    private final GotrProjectionCache projections = new GotrProjectionCache();
+    private final GotrPayloadSections sections = new GotrPayloadSections();
+    // Replaced by the replay engine so recorded games run deterministically.
+    private Clock clock = Clock.systemUTC();
+    private boolean payloadDirty;
+    private boolean flushScheduled;
+    private int idleTicks;
+    private boolean dormant;
 
     @Getter(AccessLevel.PACKAGE)
-    private final Set<GameObject> guardians = new HashSet<>();
-    @Getter(AccessLevel.PACKAGE)
-    private final Set<GameObject> activeGuardians = new HashSet<>();
-    @Getter(AccessLevel.PACKAGE)
-    private final Set<Integer> inventoryTalismans = new HashSet<>();
+    private final GotrActiveGuardians guardianTracker = new GotrActiveGuardians();
     @Getter(AccessLevel.PACKAGE)
     private final Set<GroundObject> cellTiles = new HashSet<>();
 
@@ -197,19 +216,11 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     @Getter(AccessLevel.PACKAGE)
     private boolean isInMainRegion;
     @Getter(AccessLevel.PACKAGE)
-    private boolean hasAnyStones = false;
-    @Getter(AccessLevel.PACKAGE)
-    private boolean outlineUnchargedCellTable = false;
-    @Getter(AccessLevel.PACKAGE)
-    private boolean hasAnyRunes = false;
-    @Getter(AccessLevel.PACKAGE)
-    private boolean hasAnyChargedCells = false;
-    @Getter(AccessLevel.PACKAGE)
-    private Optional<CellType> chargedCellType;
-    @Getter(AccessLevel.PACKAGE)
-    private boolean hasAnyGuardianEssence = false;
-    @Getter(AccessLevel.PACKAGE)
-    private boolean hasFullInventory = false;
+    private final GotrHudWidgets hud = new GotrHudWidgets();
+
+    // refilled in place on every inventory change while in the rift
+    private final GotrInventoryState inventory = new GotrInventoryState();
+    private boolean inventorySeen = false;
     @Getter(AccessLevel.PACKAGE)
     private boolean shouldMakeGuardian = false;
     @Getter(AccessLevel.PACKAGE)
@@ -235,6 +246,8 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     @Getter(AccessLevel.PACKAGE)
     private Optional<Instant> nextGameStart = Optional.empty();
     private Optional<Instant> gameStarted = Optional.empty();
+    // when each guardian's altar portal opened, indexed like GuardianInfo.ALL
+    private final Instant[] guardianSpawnTimes = new Instant[GuardianInfo.COUNT];
 
     @Getter(AccessLevel.PACKAGE)
     private int lastRewardUsage;
@@ -273,14 +286,67 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
         }
     };
 
+    public GuardiansOfTheRiftHelperPlugin() {
+    }
+
+    // The replay engine runs the plugin outside of the injector with its own collaborators. The
+    // item manager, notifier and client thread stay null: the replay never builds the inventory,
+    // turns every notification off and never flushes early.
+    GuardiansOfTheRiftHelperPlugin(Client client, GuardiansOfTheRiftHelperConfig config, Clock clock,
+                                   GotrStreamServer streamServer, GotrPayloadWorker payloadWorker, GotrSessionRecorder recorder,
+                                   GotrSocketTransport socketTransport, GotrSharedSnapshot sharedSnapshot) {
+        this.client = client;
+        this.config = config;
+        this.clock = clock;
+        this.streamServer = streamServer;
+        this.payloadWorker = payloadWorker;
+        this.recorder = recorder;
+        this.socketTransport = socketTransport;
+        this.sharedSnapshot = sharedSnapshot;
+    }
+
+    /** When the altar portal of this guardian opened, or empty while it is closed. */
+    Optional<Instant> getGuardianSpawnTime(GuardianInfo guardian) {
+        final int index = GuardianInfo.indexOfGameObject(guardian.gameObjectId);
+        return index < 0 ? Optional.empty() : Optional.ofNullable(guardianSpawnTimes[index]);
+    }
+
+    boolean isHasAnyStones() {
+        return inventory.stones;
+    }
+
+    boolean isOutlineUnchargedCellTable() {
+        return inventorySeen && !inventory.hasUnchargedCells();
+    }
+
+    boolean isHasAnyRunes() {
+        return inventory.runes;
+    }
+
+    boolean isHasAnyChargedCells() {
+        return inventory.hasChargedCells();
+    }
+
+    /** The highest charged cell carried, or null. */
+    CellType getChargedCellType() {
+        return inventory.highestChargedCell;
+    }
+
+    boolean isHasAnyGuardianEssence() {
+        return inventory.hasEssence();
+    }
+
+    boolean isHasFullInventory() {
+        return inventory.isFull();
+    }
+
     private boolean checkInMinigame() {
         GameState gameState = client.getGameState();
         if (gameState != GameState.LOGGED_IN && gameState != GameState.LOADING) {
             return false;
         }
 
-        Widget elementalRuneWidget = client.getWidget(PARENT_WIDGET_ID);
-        return elementalRuneWidget != null;
+        return hud.get(client, GotrHudWidgets.PARENT) != null;
     }
 
     private boolean checkInMainRegion() {
@@ -303,7 +369,6 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
 
     @Override
     protected void startUp() {
-        CELL_TILE_IDS.add(CellTileInfo.WEAK.groundObjectId);
         overlayManager.add(overlay);
         overlayManager.add(panel);
         overlayManager.add(startTimerOverlay);
@@ -311,7 +376,26 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
         isInMinigame = false;
         httpServer = new SimpleHttpServer(config.bindAddress(), config.port());
         httpServer.startHttp();
-
+        if (config.streamServer()) {
+            streamServer.start();
+            // the first request after an idle spell should not wait for the next keep-alive
+            streamServer.setWakeListener(() -> clientThread.invokeLater(() -> {
+                if (config.pauseWhenIdle()) {
+                    idleTicks = 0;
+                    publishPayload();
+                }
+            }));
+        }
+        if (config.recordSessions()) {
+            recorder.start();
+        }
+        if (config.socketTransport()) {
+            socketTransport.start();
+        }
+        if (config.sharedMemory()) {
+            sharedSnapshot.start();
+        }
+        payloadWorker.start(this::deliverPayload);
     }
 
     @Override
@@ -321,11 +405,19 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
         overlayManager.remove(startTimerOverlay);
         overlayManager.remove(portalOverlay);
         reset();
+        payloadWorker.stop();
+        recorder.stop();
         httpServer.stopHttp();
+        streamServer.stop();
+        socketTransport.stop();
+        sharedSnapshot.stop();
     }
 
     @Subscribe
     public void onItemContainerChanged(ItemContainerChanged event) {
+        if (event.getContainerId() == InventoryID.INVENTORY.getId()) {
+            sections.inventoryChanged(event.getItemContainer().getItems());
+        }
         if (pendingPouchAction != PAction.NONE || event.getItemContainer() != client.getItemContainer(InventoryID.INVENTORY)) {
             int nowEss = 0;
             for (Item it : event.getItemContainer().getItems())
@@ -355,28 +447,17 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
         }
 
         Item[] items = event.getItemContainer().getItems();
-        hasAnyStones = Arrays.stream(items).anyMatch(x -> x.getId() == ELEMENTAL_GUARDIAN_STONE_ID || x.getId() == CATALYTIC_GUARDIAN_STONE_ID || x.getId() == POLYELEMENTAL_GUARDIAN_STONE_ID);
-        outlineUnchargedCellTable = Arrays.stream(items).noneMatch(x -> x.getId() == UNCHARGED_CELL_ITEM_ID);
-        shouldMakeGuardian = Arrays.stream(items).anyMatch(x -> x.getId() == CHISEL_ID) && Arrays.stream(items).anyMatch(x -> x.getId() == OVERCHARGED_CELL_ID) && areGuardiansNeeded;
-        hasAnyRunes = Arrays.stream(items).anyMatch(x -> RUNE_IDS.contains(x.getId()));
-        hasAnyChargedCells = Arrays.stream(items).anyMatch(x -> CHARGED_CELL_ITEM_IDS.contains(x.getId()));
-        chargedCellType = Arrays.stream(items)
-                .filter(x -> CHARGED_CELL_ITEM_IDS.contains(x.getId()))
-                .map(x -> CellTileInfo.ALL.stream().filter(c -> c.itemId == x.getId()).findFirst().get().cellType).findFirst();
-
-        hasAnyGuardianEssence = Arrays.stream(items).anyMatch(x -> x.getId() == ItemID.GUARDIAN_ESSENCE);
-        hasFullInventory = Arrays.stream(items).allMatch(x -> x.getId() != -1);
-
-        List<Integer> invTalismans = Arrays.stream(items).mapToInt(x -> x.getId()).filter(x -> TALISMAN_IDS.contains(x)).boxed().collect(Collectors.toList());
-        if (invTalismans.stream().count() != inventoryTalismans.stream().count()) {
-            inventoryTalismans.clear();
-            inventoryTalismans.addAll(invTalismans);
+        if (recorder.isRecording()) {
+            recorder.recordEvent(GotrEvents.inventory(items));
         }
+        inventory.update(items);
+        inventorySeen = true;
+        shouldMakeGuardian = inventory.chisel && inventory.overchargedCell && areGuardiansNeeded;
+        guardianTracker.setTalismans(inventory.talismanMask);
 
         if (config.notifyGuardianFragments().isEnabled() && config.guardianFragmentsAmount() > 0) {
-            var optNewFragments = Arrays.stream(items).filter(x -> x.getId() == ItemID.GUARDIAN_FRAGMENTS).findFirst();
-            if (optNewFragments.isPresent()) {
-                var quantity = optNewFragments.get().getQuantity();
+            if (inventory.fragmentsPresent) {
+                var quantity = inventory.fragments;
                 if (quantity >= config.guardianFragmentsAmount() && previousGuardianFragments < config.guardianFragmentsAmount()) {
                     notifier.notify(config.notifyGuardianFragments(), "You have mined " + config.guardianFragmentsAmount() + "+ guardian fragments.");
                 }
@@ -389,44 +470,32 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     public void onGameTick(GameTick tick) {
         isInMinigame = checkInMinigame();
         isInMainRegion = checkInMainRegion();
+        recorder.setActive(isInMinigame || isInMainRegion);
+        dormant = checkDormant(isInMinigame, isInMainRegion);
+        if (dormant) {
+            bankTiles = null;
+            bankCloseButton = null;
+            bankSlotFirst = null;
+            publishOnTick();
+            return;
+        }
         NotifyBeforeGameStart();
         NotifyBeforeFirstAltar();
         if (entryBarrierClickCooldown > 0) {
             entryBarrierClickCooldown--;
         }
 
-        activeGuardians.removeIf(ag -> {
-            Animation anim = ((DynamicObject) ag.getRenderable()).getAnimation();
-            return anim == null || anim.getId() != GUARDIAN_ACTIVE_ANIM;
-        });
-
-        for (GameObject guardian : guardians) {
-            Animation animation = ((DynamicObject) guardian.getRenderable()).getAnimation();
-            if (animation != null && animation.getId() == GUARDIAN_ACTIVE_ANIM) {
-                activeGuardians.add(guardian);
-            }
-
-        }
-
-        if (!inventoryTalismans.isEmpty()) {
-            Set<Integer> wantedIds = inventoryTalismans.stream()
-                    .map(GuardianInfo.TALISMAN_TO_GUARDIAN_ID::get)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toSet());
-
-            guardians.stream()
-                    .filter(go -> wantedIds.contains(go.getId()))
-                    .forEach(activeGuardians::add);
-        }
+        guardianTracker.tick();
 
 
-        if (BankWidget.isBankLoginVisible(client)) {
+        final long fields = payloadFields();
+        if (GotrField.BANK_TILES.in(fields) && BankWidget.isBankLoginVisible(client)) {
             bankTiles = BankWidget.getKeyWidgets(client, config.pin());
         } else {
             bankTiles = null;
         }
 
-        if (BankWidget.isBankVisible(client)) {
+        if ((GotrField.BANK_CLOSE_BUTTON.in(fields) || GotrField.BANK_FIRST_SLOT.in(fields)) && BankWidget.isBankVisible(client)) {
             bankCloseButton = BankWidget.getCloseButton(client);
             bankSlotFirst = BankWidget.findVisibleBankFirstSlot(client);
         } else {
@@ -434,31 +503,69 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
             bankSlotFirst = null;
         }
 
-        Widget elementalRuneWidget = client.getWidget(ELEMENTAL_RUNE_WIDGET_ID);
-        Widget catalyticRuneWidget = client.getWidget(CATALYTIC_RUNE_WIDGET_ID);
-        Widget guardianCountWidget = client.getWidget(GUARDIAN_COUNT_WIDGET_ID);
-        Widget portalTextWidget = client.getWidget(PORTAL_TEXT_WIDGET_ID);
-        Widget guardianEnergyTextWidget = client.getWidget(GUARDIAN_ENERGY_WIDGET_ID);
+        // Everything below only parses the HUD widgets that changed since the last tick.
+        final int changed = hud.poll(client);
+        if (GotrHudWidgets.changed(changed, GotrHudWidgets.DIALOG)) {
+            // continuing a dialog swaps its text in place, without a load or close
+            sections.dialogChanged();
+        }
+        Widget elementalRuneWidget = hud.get(client, GotrHudWidgets.ELEMENTAL_RUNE);
+        Widget catalyticRuneWidget = hud.get(client, GotrHudWidgets.CATALYTIC_RUNE);
+        Widget guardianCountWidget = hud.get(client, GotrHudWidgets.GUARDIAN_COUNT);
+        Widget portalTextWidget = hud.get(client, GotrHudWidgets.PORTAL_TEXT);
+        Widget guardianEnergyTextWidget = hud.get(client, GotrHudWidgets.GUARDIAN_ENERGY);
+        Widget dialog = hud.get(client, GotrHudWidgets.DIALOG);
 
-        lastElementalRuneSprite = parseRuneWidget(elementalRuneWidget, lastElementalRuneSprite);
-        lastCatalyticRuneSprite = parseRuneWidget(catalyticRuneWidget, lastCatalyticRuneSprite);
+        if (recorder.isRecording()) {
+            Player me = client.getLocalPlayer();
+            recorder.recordEvent(GotrEvents.tick(isInMinigame, isInMainRegion, me != null ? me.getWorldLocation() : null, guardianTracker.active(),
+                    elementalRuneWidget, catalyticRuneWidget, guardianCountWidget, portalTextWidget, guardianEnergyTextWidget, dialog));
+        }
 
-        if (guardianCountWidget != null) {
+        if (GotrHudWidgets.changed(changed, GotrHudWidgets.ELEMENTAL_RUNE)) {
+            lastElementalRuneSprite = parseRuneWidget(elementalRuneWidget, lastElementalRuneSprite);
+        }
+        if (GotrHudWidgets.changed(changed, GotrHudWidgets.CATALYTIC_RUNE)) {
+            lastCatalyticRuneSprite = parseRuneWidget(catalyticRuneWidget, lastCatalyticRuneSprite);
+        }
+
+        if (guardianCountWidget != null && GotrHudWidgets.changed(changed, GotrHudWidgets.GUARDIAN_COUNT)) {
             String text = guardianCountWidget.getText();
             areGuardiansNeeded = text != null && !text.contains("10/10");
         }
 
-        if (guardianEnergyTextWidget != null) {
-            String text = guardianEnergyTextWidget.getText();
-            Pattern pattern = Pattern.compile("(\\d+)%");
-            Matcher matcher = pattern.matcher(text);
+        if (guardianEnergyTextWidget == null) {
+            guardianEnergy = -1;
+        } else if (GotrHudWidgets.changed(changed, GotrHudWidgets.GUARDIAN_ENERGY)) {
+            Matcher matcher = GUARDIAN_ENERGY_PATTERN.matcher(guardianEnergyTextWidget.getText());
             if (matcher.find()) {
                 guardianEnergy = Integer.parseInt(matcher.group(1));
             }
-        } else {
-            guardianEnergy = -1;
         }
 
+        if (GotrHudWidgets.changed(changed, GotrHudWidgets.PORTAL_TEXT) || GotrHudWidgets.changed(changed, GotrHudWidgets.ELEMENTAL_RUNE)) {
+            updatePortal(portalTextWidget, elementalRuneWidget);
+        }
+
+        if (dialog != null) {
+            String dialogText = hud.text(GotrHudWidgets.DIALOG);
+            if (BARRIER_DIALOG_FINISHING_UP.equals(dialogText)) {
+                // Allow one click per tick while the portal is closed
+                entryBarrierClickCooldown = 0;
+            } else if (dialogText != null && GotrHudWidgets.changed(changed, GotrHudWidgets.DIALOG)) {
+                final Matcher checkMatcher = CHECK_POINT_PATTERN.matcher(dialogText);
+                if (checkMatcher.find(0)) {
+                    //For some reason these are reversed compared to everything else
+                    catalyticRewardPoints = Integer.parseInt(checkMatcher.group(1));
+                    elementalRewardPoints = Integer.parseInt(checkMatcher.group(2));
+                }
+            }
+        }
+
+        publishOnTick();
+    }
+
+    private void updatePortal(Widget portalTextWidget, Widget elementalRuneWidget) {
         if (portalTextWidget != null && !portalTextWidget.isHidden()) {
             if (!portalSpawnTime.isPresent()) {
                 lastPortalDespawnTime = Optional.empty();
@@ -472,32 +579,29 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
                 }
             }
             portalLocation = portalTextWidget.getText();
-            portalSpawnTime = portalSpawnTime.isPresent() ? portalSpawnTime : Optional.of(Instant.now());
+            portalSpawnTime = portalSpawnTime.isPresent() ? portalSpawnTime : Optional.of(Instant.now(clock));
         } else if (elementalRuneWidget != null && !elementalRuneWidget.isHidden()) {
             if (portalSpawnTime.isPresent()) {
-                lastPortalDespawnTime = Optional.of(Instant.now());
+                lastPortalDespawnTime = Optional.of(Instant.now(clock));
             }
             portalLocation = null;
             portalSpawnTime = Optional.empty();
         }
+    }
 
-        Widget dialog = client.getWidget(DIALOG_WIDGET_GROUP, DIALOG_WIDGET_MESSAGE);
-        if (dialog != null) {
-            String dialogText = dialog.getText();
-            if (dialogText.equals(BARRIER_DIALOG_FINISHING_UP)) {
-                // Allow one click per tick while the portal is closed
-                entryBarrierClickCooldown = 0;
-            } else {
-                final Matcher checkMatcher = CHECK_POINT_PATTERN.matcher(dialogText);
-                if (checkMatcher.find(0)) {
-                    //For some reason these are reversed compared to everything else
-                    catalyticRewardPoints = Integer.parseInt(checkMatcher.group(1));
-                    elementalRewardPoints = Integer.parseInt(checkMatcher.group(2));
-                }
-            }
+    private void publishOnTick() {
+        if (!isIdle()) {
+            idleTicks = 0;
+            publishPayload();
+        } else if (config.idleKeepAliveTicks() > 0 && ++idleTicks >= config.idleKeepAliveTicks()) {
+            idleTicks = 0;
+            publishPayload();
         }
+    }
 
-        httpServer.setLatestJson(buildPayload());
+    // Away from the main region and the altar instances the plugin only reports where the player is.
+    private boolean checkDormant(boolean inMinigame, boolean inMainRegion) {
+        return config.dormantOutsideRift() && !inMinigame && !inMainRegion;
     }
 
     int parseRuneWidget(Widget runeWidget, int lastSpriteId) {
@@ -505,19 +609,18 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
             int spriteId = runeWidget.getSpriteId();
             if (spriteId != lastSpriteId) {
                 if (lastSpriteId > 0) {
-                    Optional<GuardianInfo> lastGuardian = GuardianInfo.ALL.stream().filter(g -> g.spriteId == lastSpriteId).findFirst();
-                    if (lastGuardian.isPresent()) {
-                        lastGuardian.get().despawn();
+                    final GuardianInfo lastGuardian = GuardianInfo.bySpriteId(lastSpriteId);
+                    if (lastGuardian != null) {
+                        guardianSpawnTimes[GuardianInfo.indexOfGameObject(lastGuardian.gameObjectId)] = null;
                     }
                 }
 
-                Optional<GuardianInfo> optionalGuardian = GuardianInfo.ALL.stream().filter(g -> g.spriteId == spriteId).findFirst();
-                if (optionalGuardian.isPresent()) {
-                    var currentGuardian = optionalGuardian.get();
-                    currentGuardian.spawn();
+                final GuardianInfo currentGuardian = GuardianInfo.bySpriteId(spriteId);
+                if (currentGuardian != null) {
+                    guardianSpawnTimes[GuardianInfo.indexOfGameObject(currentGuardian.gameObjectId)] = Instant.now(clock);
                     if (currentGuardian.notifyFunc.apply(config).isEnabled()) {
                         var condition = config.notifyGuardianCondition();
-                        if (condition == NotifyGuardianCondition.Always || (condition == NotifyGuardianCondition.Have_Guardian_Essence && hasAnyGuardianEssence) || (condition == NotifyGuardianCondition.Full_Inventory && hasFullInventory)) {
+                        if (condition == NotifyGuardianCondition.Always || (condition == NotifyGuardianCondition.Have_Guardian_Essence && isHasAnyGuardianEssence()) || (condition == NotifyGuardianCondition.Full_Inventory && isHasFullInventory())) {
                             notifier.notify(currentGuardian.notifyFunc.apply(config), "A portal to the " + currentGuardian.name + " altar has opened.");
                         }
                     }
@@ -531,56 +634,45 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
 
     @Subscribe
     public void onGameObjectSpawned(GameObjectSpawned event) {
-        GameObject gameObject = event.getGameObject();
-        if (GUARDIAN_IDS.contains(event.getGameObject().getId())) {
-            guardians.removeIf(g -> g.getId() == gameObject.getId());
-            activeGuardians.removeIf(g -> g.getId() == gameObject.getId());
-            guardians.add(gameObject);
+        // Despawns still run, so nothing from the rift outlives the scene that held it.
+        if (dormant) return;
+        final GameObject gameObject = event.getGameObject();
+        final int roles = OBJECT_ROLES.get(gameObject.getId());
+        if (roles == GotrIdTable.NONE) return;
+        if (recorder.isRecording()) {
+            recorder.recordEvent(GotrEvents.object(true, GotrEvents.KIND_GAME, gameObject));
         }
 
-        if (event.getGameObject().getId() == ObjectID.GOTR_ESSENCE_TIER_3) {
-            if (nearTile(event.getGameObject(), HUGE_TILE,3)) {
-                hugeGuardian = event.getGameObject();
-            }
+        if ((roles & ROLE_GUARDIAN) != 0) {
+            guardianTracker.spawned(gameObject);
         }
-
-        if (event.getGameObject().getId() == ObjectID.GOTR_ESSENCE_TIER_2) {
-            if (nearTile(event.getGameObject(), LARGE_TILE,3)) {
-                largeGuardian = event.getGameObject();
-            }
+        if ((roles & ROLE_HUGE_GUARDIAN) != 0 && nearTile(gameObject, HUGE_TILE, 3)) {
+            hugeGuardian = gameObject;
         }
-
-        if (ALTAR_IDS.contains(event.getGameObject().getId())) {
+        if ((roles & ROLE_LARGE_GUARDIAN) != 0 && nearTile(gameObject, LARGE_TILE, 3)) {
+            largeGuardian = gameObject;
+        }
+        if ((roles & ROLE_ALTAR) != 0) {
             currentAltar = gameObject;
         }
-
-        if (ALTAR_PORTAL_IDS.contains(event.getGameObject().getId())) {
-            if (event.getGameObject().getId() == GuardianInfo.CHAOS.altarPortalGameObjectId) {
-                if (nearTile(event.getGameObject(), CHAOS_ALTAR_PORTAL_TILE, 3)) {
-                    altarPortal = gameObject;
-                }
-            } else {
+        if ((roles & ROLE_ALTAR_PORTAL) != 0) {
+            if (gameObject.getId() != GuardianInfo.CHAOS.altarPortalGameObjectId || nearTile(gameObject, CHAOS_ALTAR_PORTAL_TILE, 3)) {
                 altarPortal = gameObject;
             }
         }
-
-        if (gameObject.getId() == UNCHARGED_CELL_GAMEOBJECT_ID) {
+        if ((roles & ROLE_UNCHARGED_CELL_TABLE) != 0) {
             unchargedCellTable = gameObject;
         }
-
-        if (gameObject.getId() == DEPOSIT_POOL_ID) {
+        if ((roles & ROLE_DEPOSIT_POOL) != 0) {
             depositPool = gameObject;
         }
-
-        if (gameObject.getId() == ELEMENTAL_ESSENCE_PILE_ID) {
+        if ((roles & ROLE_ELEMENTAL_PILE) != 0) {
             elementalEssencePile = gameObject;
         }
-
-        if (gameObject.getId() == CATALYTIC_ESSENCE_PILE_ID) {
+        if ((roles & ROLE_CATALYTIC_PILE) != 0) {
             catalyticEssencePile = gameObject;
         }
-
-        if (gameObject.getId() == ObjectID.GOTR_AGILITY_PORTAL_TOP) {
+        if ((roles & ROLE_PORTAL) != 0) {
             portal = gameObject;
             if (shouldNotifyThatPortalSpawned()) {
                 // The hint arrow is cleared under the following circumstances:
@@ -590,94 +682,90 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
                 client.setHintArrow(portal.getWorldLocation());
             }
         }
-
-        if (gameObject.getId() == ObjectID.GOTR_AGILITY_PORTAL_BOTTOM_PARENT) {
+        if ((roles & ROLE_RETURN_PORTAL) != 0) {
             returnPortal = gameObject;
         }
-
-        if (isBarrier(gameObject.getId())) {
+        if ((roles & ROLE_BARRIER) != 0) {
             barrier = gameObject;
         }
-
-        if (gameObject.getId() == ObjectID.GOTR_AGILITY_SHORTCUT_TOP ||
-                gameObject.getId() == ObjectID.GOTR_AGILITY_SHORTCUT_TOP_NOOP) {
+        if ((roles & ROLE_RUBBLE_TOP) != 0) {
             rubbleTop = gameObject;
         }
-
-        if (gameObject.getId() == ObjectID.GOTR_AGILITY_SHORTCUT_BOTTOM ||
-                gameObject.getId() == ObjectID.GOTR_AGILITY_SHORTCUT_BOTTOM_NOOP) {
+        if ((roles & ROLE_RUBBLE_BOTTOM) != 0) {
             rubbleBottom = gameObject;
         }
-
-        if (gameObject.getId() == ObjectID.GOTR_BANKCHEST) {
+        if ((roles & ROLE_BANK_CHEST) != 0) {
             bankChest = gameObject;
         }
-
-        if (gameObject.getId() == ObjectID.GOTR_WORKBENCH) {
+        if ((roles & ROLE_WORKBENCH) != 0) {
             workbench = gameObject;
         }
     }
 
     @Subscribe
     public void onGameObjectDespawned(GameObjectDespawned event) {
-        if (event.getGameObject().getId() == ObjectID.GOTR_AGILITY_PORTAL_TOP) {
+        final GameObject gameObject = event.getGameObject();
+        final int roles = OBJECT_ROLES.get(gameObject.getId());
+        if (roles == GotrIdTable.NONE) return;
+        if (recorder.isRecording()) {
+            recorder.recordEvent(GotrEvents.object(false, GotrEvents.KIND_GAME, gameObject));
+        }
+
+        if ((roles & ROLE_GUARDIAN) != 0) {
+            guardianTracker.despawned(gameObject);
+        }
+        if ((roles & ROLE_PORTAL) != 0) {
             client.clearHintArrow();
             portal = null;
         }
-
-        if (event.getGameObject().getId() == ObjectID.GOTR_AGILITY_PORTAL_BOTTOM_PARENT) {
+        if ((roles & ROLE_RETURN_PORTAL) != 0) {
             returnPortal = null;
         }
-
-        if (event.getGameObject().getId() == ObjectID.GOTR_ESSENCE_TIER_3) {
+        if ((roles & ROLE_HUGE_GUARDIAN) != 0) {
             hugeGuardian = null;
         }
-
-        if (event.getGameObject().getId() == ObjectID.GOTR_ESSENCE_TIER_2) {
+        if ((roles & ROLE_LARGE_GUARDIAN) != 0) {
             largeGuardian = null;
         }
-
-        if (event.getGameObject().getId()  == UNCHARGED_CELL_GAMEOBJECT_ID) {
+        if ((roles & ROLE_UNCHARGED_CELL_TABLE) != 0) {
             unchargedCellTable = null;
         }
-
-        if (event.getGameObject().getId()  == DEPOSIT_POOL_ID) {
+        if ((roles & ROLE_DEPOSIT_POOL) != 0) {
             depositPool = null;
         }
-
-        if (event.getGameObject().getId()  == ELEMENTAL_ESSENCE_PILE_ID) {
+        if ((roles & ROLE_ELEMENTAL_PILE) != 0) {
             elementalEssencePile = null;
         }
-
-        if (event.getGameObject().getId()  == CATALYTIC_ESSENCE_PILE_ID) {
+        if ((roles & ROLE_CATALYTIC_PILE) != 0) {
             catalyticEssencePile = null;
         }
-
-        if (isBarrier(event.getGameObject().getId())) {
+        if ((roles & ROLE_BARRIER) != 0) {
             barrier = null;
         }
-
-        if (ALTAR_IDS.contains(event.getGameObject().getId())) {
+        if ((roles & ROLE_ALTAR) != 0) {
             currentAltar = null;
         }
-
-        if (ALTAR_PORTAL_IDS.contains(event.getGameObject().getId())) {
+        if ((roles & ROLE_ALTAR_PORTAL) != 0) {
             altarPortal = null;
         }
-
-        if (event.getGameObject().getId()  == ObjectID.GOTR_BANKCHEST) {
+        if ((roles & ROLE_BANK_CHEST) != 0) {
             bankChest = null;
         }
 
-        if (rubbleTop == event.getGameObject()) rubbleTop = null;
-        if (rubbleBottom == event.getGameObject()) rubbleBottom = null;
+        if (rubbleTop == gameObject) rubbleTop = null;
+        if (rubbleBottom == gameObject) rubbleBottom = null;
     }
 
     @Subscribe
     public void onGroundObjectSpawned(GroundObjectSpawned event) {
+        if (dormant) return;
         var groundObject = event.getGroundObject();
+        final int roles = OBJECT_ROLES.get(groundObject.getId());
+        if (recorder.isRecording() && (roles & (ROLE_CELL_TILE | ROLE_RUBBLE)) != 0) {
+            recorder.recordEvent(GotrEvents.object(true, GotrEvents.KIND_GROUND, groundObject));
+        }
 
-        if (CELL_TILE_IDS.contains(groundObject.getId())) {
+        if ((roles & ROLE_CELL_TILE) != 0) {
             cellTiles.removeIf(x -> x.getWorldLocation().distanceTo(groundObject.getWorldLocation()) < 1);
             cellTiles.add(groundObject);
         }
@@ -687,7 +775,11 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
 
     @Subscribe
     public void onNpcSpawned(NpcSpawned npcSpawned) {
+        if (dormant) return;
         NPC npc = npcSpawned.getNpc();
+        if (recorder.isRecording() && (npc.getId() == GREAT_GUARDIAN_ID || npc.getId() == NpcID.GOTR_CORDELIA_2OPS)) {
+            recorder.recordEvent(GotrEvents.npc(true, npc.getId(), npc.getName(), npc.getWorldLocation()));
+        }
         if (npc.getId() == GREAT_GUARDIAN_ID) {
             greatGuardian = npc;
         }
@@ -700,6 +792,9 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     @Subscribe
     public void onNpcDespawned(NpcDespawned npcDespawned) {
         NPC npc = npcDespawned.getNpc();
+        if (recorder.isRecording() && (npc.getId() == GREAT_GUARDIAN_ID || npc.getId() == NpcID.GOTR_CORDELIA_2OPS)) {
+            recorder.recordEvent(GotrEvents.npc(false, npc.getId(), npc.getName(), npc.getWorldLocation()));
+        }
         if (npc.getId() == GREAT_GUARDIAN_ID) {
             greatGuardian = null;
         }
@@ -710,31 +805,62 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     }
 
     @Subscribe public void onWallObjectSpawned(WallObjectSpawned e){
+        if (dormant) return;
+        if (recorder.isRecording() && isRubble(e.getWallObject().getId())) {
+            recorder.recordEvent(GotrEvents.object(true, GotrEvents.KIND_WALL, e.getWallObject()));
+        }
         considerRubble(e.getWallObject());
     }
 
     @Subscribe public void onDecorativeObjectSpawned(DecorativeObjectSpawned e){
+        if (dormant) return;
+        if (recorder.isRecording() && isRubble(e.getDecorativeObject().getId())) {
+            recorder.recordEvent(GotrEvents.object(true, GotrEvents.KIND_DECORATIVE, e.getDecorativeObject()));
+        }
         considerRubble(e.getDecorativeObject());
     }
 
     @Subscribe public void onWallObjectDespawned(WallObjectDespawned e){
+        if (recorder.isRecording() && (rubbleTop == e.getWallObject() || rubbleBottom == e.getWallObject())) {
+            recorder.recordEvent(GotrEvents.object(false, GotrEvents.KIND_WALL, e.getWallObject()));
+        }
         if (rubbleTop == e.getWallObject()) rubbleTop = null;
         if (rubbleBottom == e.getWallObject()) rubbleBottom = null;
 
     }
 
     @Subscribe public void onDecorativeObjectDespawned(DecorativeObjectDespawned e){
+        if (recorder.isRecording() && (rubbleTop == e.getDecorativeObject() || rubbleBottom == e.getDecorativeObject())) {
+            recorder.recordEvent(GotrEvents.object(false, GotrEvents.KIND_DECORATIVE, e.getDecorativeObject()));
+        }
         if (rubbleTop == e.getDecorativeObject()) rubbleTop = null;
         if (rubbleBottom == e.getDecorativeObject()) rubbleBottom = null;
     }
 
     @Subscribe public void onGroundObjectDespawned(GroundObjectDespawned e){
+        if (recorder.isRecording() && (rubbleTop == e.getGroundObject() || rubbleBottom == e.getGroundObject())) {
+            recorder.recordEvent(GotrEvents.object(false, GotrEvents.KIND_GROUND, e.getGroundObject()));
+        }
         if (rubbleTop == e.getGroundObject()) rubbleTop = null;
         if (rubbleBottom == e.getGroundObject()) rubbleBottom = null;
     }
 
     @Subscribe
     public void onGameStateChanged(GameStateChanged event) {
+        // interfaces are torn down on logout, hops and region loads without a close for each
+        hud.invalidate();
+        if (event.getGameState() == GameState.LOADING) {
+            // Scene objects spawn before the next tick; the new map regions are already known here.
+            // The minigame HUD may not be back yet, so a player still in the game last tick stays
+            // awake: altar instances lie outside the main region and their altar and portal
+            // spawn during this load.
+            isInMainRegion = checkInMainRegion();
+            recorder.setActive(isInMinigame || isInMainRegion);
+            dormant = checkDormant(isInMinigame || checkInMinigame(), isInMainRegion);
+        }
+        if (recorder.isRecording()) {
+            recorder.recordEvent(GotrEvents.gameState(event.getGameState().name()));
+        }
         if (event.getGameState() == GameState.LOADING) {
             // on region changes the tiles get set to null
             reset();
@@ -746,8 +872,13 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     @Subscribe
     public void onVarbitChanged(VarbitChanged event) {
         if (!isInMainRegion && !isInMinigame) return;
-        currentElementalRewardPoints = Math.max(0, client.getVarbitValue(13686));
-        currentCatalyticRewardPoints = Math.max(0, client.getVarbitValue(13685));
+        final int elemental = Math.max(0, client.getVarbitValue(13686));
+        final int catalytic = Math.max(0, client.getVarbitValue(13685));
+        if (recorder.isRecording() && (elemental != currentElementalRewardPoints || catalytic != currentCatalyticRewardPoints)) {
+            recorder.recordEvent(GotrEvents.varbits(elemental, catalytic));
+        }
+        currentElementalRewardPoints = elemental;
+        currentCatalyticRewardPoints = catalytic;
     }
 
     @Subscribe
@@ -757,16 +888,24 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
             return;
 
         String msg = chatMessage.getMessage();
+        if (recorder.isRecording()) {
+            if (msg.contains("The rift becomes active!")) {
+                recorder.newGame();
+            }
+            recorder.recordEvent(GotrEvents.chat(chatMessage.getType().name(), msg));
+        }
+        boolean urgent = false;
         if (msg.contains("You step through the portal")) {
             client.clearHintArrow();
             portal = null;
+            urgent = true;
         }
         if (msg.contains("There is no essence in this pouch.") || msg.contains("You do not have any essence to fill your pouch with.")) {
             pouchEssence = 0;
         }
 
         if (msg.contains("The rift becomes active!")) {
-            Optional<Instant> currTime = Optional.of(Instant.now());
+            Optional<Instant> currTime = Optional.of(Instant.now(clock));
             lastPortalDespawnTime = currTime;
             nextGameStart = Optional.empty();
             gameStarted = currTime;
@@ -774,18 +913,19 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
             hasNotifiedFirstRift = false;
             rewardReceived = false;
             pouchEssence = 0;
+            urgent = true;
         } else if (msg.contains("The rift will become active in 30 seconds.")) {
             hasNotifiedGameStart = config.beforeGameStartSeconds() > 30;
-            nextGameStart = Optional.of(Instant.now().plusSeconds(30));
+            nextGameStart = Optional.of(Instant.now(clock).plusSeconds(30));
         } else if (msg.contains("The rift will become active in 10 seconds.")) {
-            nextGameStart = Optional.of(Instant.now().plusSeconds(10));
+            nextGameStart = Optional.of(Instant.now(clock).plusSeconds(10));
             hasNotifiedGameStart = config.beforeGameStartSeconds() > 10;
         } else if (msg.contains("The rift will become active in 5 seconds.")) {
-            nextGameStart = Optional.of(Instant.now().plusSeconds(5));
+            nextGameStart = Optional.of(Instant.now(clock).plusSeconds(5));
             hasNotifiedGameStart = config.beforeGameStartSeconds() > 5;
         } else if (msg.contains("The Portal Guardians will keep their rifts open for another 30 seconds.")) {
             hasNotifiedGameStart = false;
-            nextGameStart = Optional.of(Instant.now().plusSeconds(60));
+            nextGameStart = Optional.of(Instant.now(clock).plusSeconds(60));
         } else if (msg.contains("You found some loot:")) {
             elementalRewardPoints = Math.max(0, elementalRewardPoints - 1);
             catalyticRewardPoints = Math.max(0, catalyticRewardPoints - 1);
@@ -797,12 +937,14 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
             elementalRewardPoints = Integer.parseInt(rewardPointMatcher.group(1).replaceAll(",", ""));
             catalyticRewardPoints = Integer.parseInt(rewardPointMatcher.group(2).replaceAll(",", ""));
             rewardReceived = true;
+            urgent = true;
         } else if (REWARDED_PATTERN.matcher(msg).find()) {
             // Fallback for the shorter award message without totals
             rewardReceived = true;
+            urgent = true;
         }
 
-        httpServer.setLatestJson(buildPayload());
+        markPayloadDirty(urgent);
     }
 
     @Provides
@@ -827,6 +969,12 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
 
     @Subscribe
     public void onMenuOptionClicked(MenuOptionClicked event) {
+        // closes the menu, and continues or answers any open dialog
+        sections.menuChanged();
+        sections.dialogChanged();
+        if (recorder.isRecording() && (event.getId() == 43700 || event.getItemId() == ID_COLOSSAL_POUCH_NEW || event.getItemId() == ID_COLOSSAL_POUCH_DEGRADED)) {
+            recorder.recordEvent(GotrEvents.menuClick(event.getId(), event.getMenuAction().getId(), event.getItemId(), event.getMenuOption()));
+        }
         if (!config.quickPassCooldown()) return;
 
         // Only allow one click on the entry barrier's quick-pass option for every 3 game ticks
@@ -853,6 +1001,36 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
         }
     }
 
+    @Subscribe
+    public void onMenuOpened(MenuOpened event) {
+        sections.menuChanged();
+    }
+
+    @Subscribe
+    public void onWidgetLoaded(WidgetLoaded event) {
+        hud.loaded(event.getGroupId());
+        sections.dialogChanged();
+        sections.inventoryLayoutChanged();
+    }
+
+    @Subscribe
+    public void onWidgetClosed(WidgetClosed event) {
+        hud.closed(event.getGroupId());
+        sections.dialogChanged();
+    }
+
+    @Subscribe
+    public void onResizeableChanged(ResizeableChanged event) {
+        sections.inventoryLayoutChanged();
+        sections.dialogChanged();
+    }
+
+    @Subscribe
+    public void onCanvasSizeChanged(CanvasSizeChanged event) {
+        sections.inventoryLayoutChanged();
+        sections.dialogChanged();
+    }
+
     @Subscribe
     public void onOverheadTextChanged(OverheadTextChanged event) {
         if (!("Apprentice Tamara".equals(event.getActor().getName()) || "Apprentice Cordelia".equals(event.getActor().getName()))) {
@@ -881,31 +1059,33 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     private void considerRubble(TileObject to) {
         if (to == null) return;
         final int id = to.getId();
+        final int roles = OBJECT_ROLES.get(id);
 
-        if (id == ObjectID.GOTR_AGILITY_SHORTCUT_TOP
-                || id == ObjectID.GOTR_AGILITY_SHORTCUT_TOP_NOOP) {
+        if ((roles & ROLE_RUBBLE_TOP) != 0) {
             rubbleTop = to;
             return;
         }
-        if (id == ObjectID.GOTR_AGILITY_SHORTCUT_BOTTOM
-                || id == ObjectID.GOTR_AGILITY_SHORTCUT_BOTTOM_NOOP) {
+        if ((roles & ROLE_RUBBLE_BOTTOM) != 0) {
             rubbleBottom = to;
             return;
         }
 
-        final String name = TargetPointMapper.safeObjectName(client, id);
-        if (name != null && name.toLowerCase().contains("rubble")) {
-            log.debug("Rubble-like object seen: id={} name={} type={} at {}",
-                    id, name, to.getClass().getSimpleName(), to.getWorldLocation());
+        // the name lookup is a composition load per spawned object; only pay for it when logging
+        if (log.isDebugEnabled()) {
+            final String name = TargetPointMapper.safeObjectName(client, id);
+            if (name != null && name.toLowerCase().contains("rubble")) {
+                log.debug("Rubble-like object seen: id={} name={} type={} at {}",
+                        id, name, to.getClass().getSimpleName(), to.getWorldLocation());
+            }
         }
     }
 
     private void SwapMenu(Menu menu) {
         var entries = menu.getMenuEntries();
-        if (config.hideGreatGuardianPowerUp() && !hasAnyStones) {
+        if (config.hideGreatGuardianPowerUp() && !isHasAnyStones()) {
             entries = Arrays.stream(entries).filter(x -> !x.getOption().contains("Power-up") || !x.getTarget().contains("Great Guardian")).toArray(MenuEntry[]::new);
         }
-        if (config.hideCellTilePlaceCell() && !hasAnyChargedCells) {
+        if (config.hideCellTilePlaceCell() && !isHasAnyChargedCells()) {
             entries = Arrays.stream(entries).filter(x -> !x.getOption().contains("Place-cell")).toArray(MenuEntry[]::new);
         }
 
@@ -919,8 +1099,8 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
     }
 
     private void reset() {
-        guardians.clear();
-        activeGuardians.clear();
+        guardianTracker.clear();
+        hud.invalidate();
         cellTiles.clear();
         unchargedCellTable = null;
         depositPool = null;
@@ -930,6 +1110,8 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
         elementalEssencePile = null;
         altarPortal = null;
         currentAltar = null;
+        projections.clear();
+        sections.clear();
         if (isInMinigame || isInMainRegion) {
             client.clearHintArrow();
             portal = null;
@@ -940,7 +1122,7 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
         if (hasNotifiedGameStart || !nextGameStart.isPresent() || !config.notifyBeforeGameStart().isEnabled()) return;
 
         var start = nextGameStart.get();
-        var secondsToStart = ChronoUnit.SECONDS.between(Instant.now(), start) - .5d;
+        var secondsToStart = ChronoUnit.SECONDS.between(Instant.now(clock), start) - .5d;
         if (secondsToStart < config.beforeGameStartSeconds()) {
             if (config.beforeGameStartSeconds() > 0) {
                 notifier.notify(config.notifyBeforeGameStart(), "The next game is starting in " + config.beforeGameStartSeconds() + " seconds!");
@@ -955,7 +1137,7 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
         if (hasNotifiedFirstRift || !gameStarted.isPresent() || !config.notifyBeforeFirstAltar().isEnabled()) return;
 
         var start = gameStarted.get();
-        var secondsToRift = ChronoUnit.SECONDS.between(Instant.now(), start.plusSeconds(120)) - .5d;
+        var secondsToRift = ChronoUnit.SECONDS.between(Instant.now(clock), start.plusSeconds(120)) - .5d;
 
         if (secondsToRift < config.beforeFirstAltarSeconds()) {
             if (config.beforeFirstAltarSeconds() > 0) {
@@ -980,14 +1162,6 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
         return Color.GREEN;
     }
 
-    public int getParentWidgetId() {
-        return PARENT_WIDGET_ID;
-    }
-
-    public int getPortalWidgetId() {
-        return PORTAL_WIDGET_ID;
-    }
-
     public int getPortalSpriteId() {
         return PORTAL_SPRITE_ID;
     }
@@ -1039,10 +1213,38 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
         return sum;
     }
 
-    private boolean isBarrier(int id) {
-        return (id == ObjectID.GOTR_BARRIER ||
-                id == ObjectID.GOTR_BARRIER_NOENTRY ||
-                id == ObjectID.GOTR_BARRIER_CLOSED);
+    private static GotrIdTable objectRoles() {
+        final GotrIdTable.Builder b = GotrIdTable.builder();
+        for (GuardianInfo g : GuardianInfo.ALL) {
+            b.or(g.gameObjectId, ROLE_GUARDIAN)
+                    .or(g.altarGameObjectId, ROLE_ALTAR)
+                    .or(g.altarPortalGameObjectId, ROLE_ALTAR_PORTAL);
+        }
+        for (CellTileInfo c : CellTileInfo.ALL) {
+            b.or(c.groundObjectId, ROLE_CELL_TILE);
+        }
+        return b.or(ObjectID.GOTR_ESSENCE_TIER_3, ROLE_HUGE_GUARDIAN)
+                .or(ObjectID.GOTR_ESSENCE_TIER_2, ROLE_LARGE_GUARDIAN)
+                .or(UNCHARGED_CELL_GAMEOBJECT_ID, ROLE_UNCHARGED_CELL_TABLE)
+                .or(DEPOSIT_POOL_ID, ROLE_DEPOSIT_POOL)
+                .or(ELEMENTAL_ESSENCE_PILE_ID, ROLE_ELEMENTAL_PILE)
+                .or(CATALYTIC_ESSENCE_PILE_ID, ROLE_CATALYTIC_PILE)
+                .or(ObjectID.GOTR_AGILITY_PORTAL_TOP, ROLE_PORTAL)
+                .or(ObjectID.GOTR_AGILITY_PORTAL_BOTTOM_PARENT, ROLE_RETURN_PORTAL)
+                .or(ObjectID.GOTR_BARRIER, ROLE_BARRIER)
+                .or(ObjectID.GOTR_BARRIER_NOENTRY, ROLE_BARRIER)
+                .or(ObjectID.GOTR_BARRIER_CLOSED, ROLE_BARRIER)
+                .or(ObjectID.GOTR_AGILITY_SHORTCUT_TOP, ROLE_RUBBLE_TOP)
+                .or(ObjectID.GOTR_AGILITY_SHORTCUT_TOP_NOOP, ROLE_RUBBLE_TOP)
+                .or(ObjectID.GOTR_AGILITY_SHORTCUT_BOTTOM, ROLE_RUBBLE_BOTTOM)
+                .or(ObjectID.GOTR_AGILITY_SHORTCUT_BOTTOM_NOOP, ROLE_RUBBLE_BOTTOM)
+                .or(ObjectID.GOTR_BANKCHEST, ROLE_BANK_CHEST)
+                .or(ObjectID.GOTR_WORKBENCH, ROLE_WORKBENCH)
+                .build();
+    }
+
+    private static boolean isRubble(int id) {
+        return (OBJECT_ROLES.get(id) & ROLE_RUBBLE) != 0;
     }
 
     private static boolean nearTile(GameObject go, WorldPoint tile, int tol) {
@@ -1050,25 +1252,84 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
          return w != null && w.distanceTo(tile) <= tol;
     }
 
+    // Event handlers only mark state dirty; the payload is built once per tick in onGameTick.
+    // Urgent changes can optionally be flushed at the end of the current client frame.
+    private void markPayloadDirty(boolean urgent) {
+        payloadDirty = true;
+        if (urgent && config.lowLatencyFlush() && !flushScheduled) {
+            flushScheduled = true;
+            clientThread.invokeLater(() -> {
+                flushScheduled = false;
+                if (payloadDirty && !isIdle()) {
+                    publishPayload();
+                }
+            });
+        }
+    }
+
+    // Client thread: capture only. Encoding happens on the payload worker.
+    private void publishPayload() {
+        payloadDirty = false;
+        payloadWorker.submit(buildPayload());
+    }
+
+    private void deliverPayload(GotrPayload payload) {
+        httpServer.setLatestJson(payload);
+        streamServer.publish(payload);
+        socketTransport.publish(payload);
+        sharedSnapshot.publish(payload);
+        recorder.recordPayload(payload);
+    }
+
+    // Requests to SimpleHttpServer cannot be seen, hence pauseWhenIdle being opt-in. Shared memory
+    // readers cannot be seen either, so an enabled snapshot always counts as a consumer.
+    private boolean isIdle() {
+        return config.pauseWhenIdle()
+                && !streamServer.hasConsumers()
+                && !socketTransport.hasConsumers()
+                && !config.sharedMemory()
+                && !recorder.isRecording();
+    }
+
+    // Only stream server clients can say what they need; the socket, shared memory and recorder
+    // take whole payloads, so while any of them is in use every field is built.
+    private long payloadFields() {
+        if (!config.computeOnDemand() || !streamServer.isRunning()
+                || socketTransport.hasConsumers() || config.sharedMemory() || recorder.isRecording()) {
+            return GotrField.ALL;
+        }
+        return streamServer.demandedFields();
+    }
+
     private GotrPayload buildPayload() {
-        PlayerSnapshot player = PlayerSnapshot.capture(client, lastPlayerWp);
+        if (dormant) {
+            return GotrPayload.dormant(seq.incrementAndGet(), clock.millis(), client.getLocalPlayer() != null, isInMinigame, isInMainRegion);
+        }
+        final long fields = payloadFields();
+        PlayerSnapshot player = GotrField.PLAYER.in(fields) ? PlayerSnapshot.capture(client, lastPlayerWp) : null;
         Player me = client.getLocalPlayer();
         lastPlayerWp = (me != null) ? me.getWorldLocation() : null;
 
-        final GotrInvSummary inv = GotrInventoryMapper.capture(client, itemManager, pouchEssence);
+        final GotrInvSummary inv = GotrField.INV.in(fields) ? sections.inventory(client, itemManager, pouchEssence) : null;
 
+        projections.begin(client);
         return new GotrPayload(
                 client,
+                projections,
+                sections,
                 seq.incrementAndGet(),
-                System.currentTimeMillis(),
+                clock.millis(),
+                fields,
                 client.getLocalPlayer() != null,
                 isInMinigame,
+                isInMainRegion,
                 bankTiles,
                 bankCloseButton,
                 bankSlotFirst,
                 bankChest,
                 inv,
-                activeGuardians,
+                guardianTracker.active(),
+                guardianTracker.mask(),
                 cellTiles,
                 hugeGuardian,
                 largeGuardian,
@@ -1086,10 +1347,10 @@ public class GuardiansOfTheRiftHelperPlugin extends Plugin {
                 rubbleBottom,
                 currentAltar,
                 altarPortal,
-                hasAnyRunes,
-                hasAnyGuardianEssence,
-                hasAnyChargedCells,
-                hasAnyStones,
+                isHasAnyRunes(),
+                isHasAnyGuardianEssence(),
+                isHasAnyChargedCells(),
+                isHasAnyStones(),
                 rewardReceived,
                 isFirstPortal,
                 portalSpawnTime.orElse(null),
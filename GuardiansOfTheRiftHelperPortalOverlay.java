@@ -45,8 +45,8 @@ public class GuardiansOfTheRiftHelperPortalOverlay extends Overlay {
         Optional<Instant> despawn = plugin.getLastPortalDespawnTime();
         if(!despawn.isPresent()) return null;
 
-        var parentWidget = client.getWidget(plugin.getParentWidgetId());
-        var portalWidget = client.getWidget(plugin.getPortalWidgetId());
+        var parentWidget = plugin.getHud().get(client, GotrHudWidgets.PARENT);
+        var portalWidget = plugin.getHud().get(client, GotrHudWidgets.PORTAL);
 
         if (parentWidget == null || portalWidget == null) {
             return null;
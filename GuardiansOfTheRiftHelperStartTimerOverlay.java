@@ -45,8 +45,8 @@ public class GuardiansOfTheRiftHelperStartTimerOverlay extends Overlay {
 
             String startString = String.format("%02d", timeToStart % 60) + " seconds to game start";
 
-            var parentWidget = client.getWidget(plugin.getParentWidgetId());
-            var portalWidget = client.getWidget(plugin.getPortalWidgetId());
+            var parentWidget = plugin.getHud().get(client, GotrHudWidgets.PARENT);
+            var portalWidget = plugin.getHud().get(client, GotrHudWidgets.PORTAL);
             if (parentWidget == null || portalWidget == null) {
                 return null;
             }
@@ -0,0 +1,627 @@
+package net.runelite.client.plugins.gotr;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.*;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.*;
+import net.runelite.api.widgets.Widget;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Feeds recorded events through a real {@link GuardiansOfTheRiftHelperPlugin} against a stubbed
+ * {@link Client} and collects the payloads it publishes, as fast as the handlers run.
+ *
+ * Input is either a session segment written by {@link GotrSessionRecorder}, a JSON array of
+ * {@link GotrEvents} objects (an optional "t" gives the wall time in ms, otherwise every tick is
+ * 600ms), or a single payload in the test.json shape, which is turned into the spawns, inventory
+ * and ticks that would have produced it.
+ *
+ * The stubbed client only knows what the events carry, so screen geometry in the replayed payloads
+ * is not meaningful. Fields that need collaborators the replay has no stand-in for (the item
+ * manager behind inventory names, or the player, menu, dialog and bank widgets) cannot be built;
+ * a mask that asks for any of them is rejected. Notifications are off, and the socket transport
+ * and shared snapshot are present but never started.
+ */
+@Slf4j
+public class GotrReplayEngine {
+    public static final long UNSUPPORTED_FIELDS = GotrField.BANK | GotrField.INV.bit() | GotrField.PLAYER.bit() | GotrField.MENU.bit() | GotrField.DIALOG.bit();
+    public static final long DEFAULT_FIELDS = GotrField.ALL & ~UNSUPPORTED_FIELDS;
+
+    private static final long TICK_MS = 600;
+    private static final int MAIN_REGION = 14484;
+    private static final int GUARDIAN_ACTIVE_ANIM = GotrActiveGuardians.ACTIVE_ANIMATION;
+    private static final int VARBIT_ELEMENTAL = 13686;
+    private static final int VARBIT_CATALYTIC = 13685;
+    private static final int UNCHARGED_CELL_ITEM_ID = 26882;
+
+    private static final int PARENT_WIDGET_ID = 48889858;
+    private static final int CATALYTIC_RUNE_WIDGET_ID = 48889876;
+    private static final int ELEMENTAL_RUNE_WIDGET_ID = 48889879;
+    private static final int GUARDIAN_COUNT_WIDGET_ID = 48889886;
+    private static final int PORTAL_TEXT_WIDGET_ID = 48889884;
+    private static final int GUARDIAN_ENERGY_WIDGET_ID = 48889874;
+    private static final int DIALOG_WIDGET_ID = 229 << 16 | 1;
+
+    private final long fields;
+    private final ReplayClock clock = new ReplayClock();
+    private final List<GotrPayload> out = new ArrayList<>();
+
+    // world the stubbed client reports
+    private GameState gameState = GameState.LOGGED_IN;
+    private int[] mapRegions = new int[0];
+    private int baseX;
+    private int baseY;
+    private WorldPoint playerWp;
+    private final Map<Integer, Widget> widgets = new HashMap<>();
+    private final Map<Integer, Integer> varbits = new HashMap<>();
+    private final Set<Integer> activeGuardianIds = new HashSet<>();
+    private final Map<String, Object> objects = new HashMap<>();
+    private Item[] items = new Item[0];
+
+    private final Client client;
+    private final ItemContainer inventory;
+    private final GuardiansOfTheRiftHelperPlugin plugin;
+    private boolean ticked;
+
+    public GotrReplayEngine() {
+        this(DEFAULT_FIELDS);
+    }
+
+    /**
+     * fields is the {@link GotrField} mask every replayed payload is built with; it may not
+     * include any of {@link #UNSUPPORTED_FIELDS}.
+     */
+    public GotrReplayEngine(long fields) {
+        if ((fields & UNSUPPORTED_FIELDS) != 0) {
+            throw new IllegalArgumentException("GOTR replay cannot build " + names(fields & UNSUPPORTED_FIELDS));
+        }
+        this.fields = fields;
+        this.inventory = GotrReplayStubs.stub(ItemContainer.class, GotrReplayStubs.answers()
+                .on("getItems", a -> items)
+                .on("getId", a -> InventoryID.INVENTORY.getId())
+                .on("count", a -> items.length));
+        this.client = createClient();
+        this.plugin = createPlugin();
+    }
+
+    /**
+     * Runs the events in order and returns every payload published along the way. Throws
+     * IllegalStateException, with the offending event, as soon as a handler throws.
+     */
+    public List<GotrPayload> replay(List<JsonObject> events) {
+        for (JsonObject e : events) {
+            if (e.has("t")) {
+                clock.millis = e.get("t").getAsLong();
+                ticked = false;
+            } else if (ticked) {
+                clock.millis += TICK_MS;
+                ticked = false;
+            }
+            try {
+                dispatch(e);
+            } catch (RuntimeException ex) {
+                // a handler that breaks must fail the replay, not quietly publish less
+                throw new IllegalStateException("GOTR replay failed on event " + e, ex);
+            }
+        }
+        return out;
+    }
+
+    private void dispatch(JsonObject e) {
+        switch (e.get("e").getAsString()) {
+            case GotrEvents.E_TICK:
+                applyTick(e);
+                // onGameTick never looks at the event itself
+                plugin.onGameTick(null);
+                ticked = true;
+                break;
+            case GotrEvents.E_CHAT: {
+                final ChatMessage msg = new ChatMessage();
+                msg.setType(ChatMessageType.valueOf(e.get("type").getAsString()));
+                msg.setMessage(e.get("msg").getAsString());
+                msg.setName("");
+                msg.setSender("");
+                plugin.onChatMessage(msg);
+                break;
+            }
+            case GotrEvents.E_INVENTORY: {
+                final JsonArray arr = e.getAsJsonArray("items");
+                final Item[] next = new Item[arr.size()];
+                for (int i = 0; i < next.length; i++) {
+                    final JsonArray slot = arr.get(i).getAsJsonArray();
+                    next[i] = new Item(slot.get(0).getAsInt(), slot.get(1).getAsInt());
+                }
+                items = next;
+                plugin.onItemContainerChanged(new ItemContainerChanged(InventoryID.INVENTORY.getId(), inventory));
+                break;
+            }
+            case GotrEvents.E_OBJECT_SPAWNED:
+                objectEvent(e, true);
+                break;
+            case GotrEvents.E_OBJECT_DESPAWNED:
+                objectEvent(e, false);
+                break;
+            case GotrEvents.E_NPC_SPAWNED:
+                plugin.onNpcSpawned(new NpcSpawned(npc(e)));
+                break;
+            case GotrEvents.E_NPC_DESPAWNED:
+                plugin.onNpcDespawned(new NpcDespawned(npc(e)));
+                objects.remove(key("npc", e));
+                break;
+            case GotrEvents.E_VARBITS:
+                varbits.put(VARBIT_ELEMENTAL, e.get("elemental").getAsInt());
+                varbits.put(VARBIT_CATALYTIC, e.get("catalytic").getAsInt());
+                plugin.onVarbitChanged(new VarbitChanged());
+                break;
+            case GotrEvents.E_GAME_STATE: {
+                gameState = GameState.valueOf(e.get("state").getAsString());
+                final GameStateChanged changed = new GameStateChanged();
+                changed.setGameState(gameState);
+                plugin.onGameStateChanged(changed);
+                break;
+            }
+            case GotrEvents.E_MENU_CLICK: {
+                final MenuEntry entry = GotrReplayStubs.stub(MenuEntry.class, GotrReplayStubs.answers()
+                        .on("getIdentifier", a -> e.get("id").getAsInt())
+                        .on("getType", a -> MenuAction.of(e.get("action").getAsInt()))
+                        .on("getItemId", a -> e.get("itemId").getAsInt())
+                        .on("getOption", a -> e.has("option") ? e.get("option").getAsString() : null)
+                        .on("getTarget", a -> ""));
+                plugin.onMenuOptionClicked(new MenuOptionClicked(entry));
+                break;
+            }
+            default:
+                log.debug("Skipping unknown GOTR replay event {}", e);
+        }
+    }
+
+    private void applyTick(JsonObject e) {
+        final boolean inMinigame = e.get("inMinigame").getAsBoolean();
+        mapRegions = e.get("inMainRegion").getAsBoolean() ? new int[]{MAIN_REGION} : new int[0];
+        if (e.has("x")) {
+            playerWp = new WorldPoint(e.get("x").getAsInt(), e.get("y").getAsInt(), e.get("plane").getAsInt());
+            if (mapRegions.length == 0) {
+                mapRegions = new int[]{playerWp.getRegionID()};
+            }
+        }
+        // 104x104 scene around the current region, as the client loads it
+        final int region = mapRegions.length > 0 ? mapRegions[0] : MAIN_REGION;
+        baseX = (region >> 8 << 6) - 48;
+        baseY = ((region & 0xFF) << 6) - 48;
+
+        activeGuardianIds.clear();
+        if (e.has("activeGuardians")) {
+            for (JsonElement id : e.getAsJsonArray("activeGuardians")) {
+                activeGuardianIds.add(id.getAsInt());
+            }
+        }
+
+        widgets.clear();
+        if (inMinigame) {
+            widgets.put(PARENT_WIDGET_ID, widget(PARENT_WIDGET_ID, 0, null));
+        }
+        if (e.has("elementalSprite")) {
+            widgets.put(ELEMENTAL_RUNE_WIDGET_ID, widget(ELEMENTAL_RUNE_WIDGET_ID, e.get("elementalSprite").getAsInt(), null));
+        }
+        if (e.has("catalyticSprite")) {
+            widgets.put(CATALYTIC_RUNE_WIDGET_ID, widget(CATALYTIC_RUNE_WIDGET_ID, e.get("catalyticSprite").getAsInt(), null));
+        }
+        putText(e, "guardianCount", GUARDIAN_COUNT_WIDGET_ID);
+        putText(e, "portalText", PORTAL_TEXT_WIDGET_ID);
+        putText(e, "energyText", GUARDIAN_ENERGY_WIDGET_ID);
+        putText(e, "dialogText", DIALOG_WIDGET_ID);
+        // fresh stubs every tick, so the plugin's handles have to be looked up again
+        plugin.getHud().invalidate();
+    }
+
+    private void putText(JsonObject e, String key, int widgetId) {
+        if (e.has(key)) {
+            widgets.put(widgetId, widget(widgetId, -1, e.get(key).getAsString()));
+        }
+    }
+
+    private void objectEvent(JsonObject e, boolean spawned) {
+        final String kind = e.get("kind").getAsString();
+        final String key = key(kind, e);
+        final Object object = spawned ? objects.computeIfAbsent(key, k -> tileObject(kind, e)) : objects.remove(key);
+        if (object == null) {
+            return;
+        }
+        switch (kind) {
+            case GotrEvents.KIND_GAME:
+                if (spawned) {
+                    final GameObjectSpawned ev = new GameObjectSpawned();
+                    ev.setGameObject((GameObject) object);
+                    plugin.onGameObjectSpawned(ev);
+                } else {
+                    final GameObjectDespawned ev = new GameObjectDespawned();
+                    ev.setGameObject((GameObject) object);
+                    plugin.onGameObjectDespawned(ev);
+                }
+                break;
+            case GotrEvents.KIND_GROUND:
+                if (spawned) {
+                    final GroundObjectSpawned ev = new GroundObjectSpawned();
+                    ev.setGroundObject((GroundObject) object);
+                    plugin.onGroundObjectSpawned(ev);
+                } else {
+                    final GroundObjectDespawned ev = new GroundObjectDespawned();
+                    ev.setGroundObject((GroundObject) object);
+                    plugin.onGroundObjectDespawned(ev);
+                }
+                break;
+            case GotrEvents.KIND_WALL:
+                if (spawned) {
+                    final WallObjectSpawned ev = new WallObjectSpawned();
+                    ev.setWallObject((WallObject) object);
+                    plugin.onWallObjectSpawned(ev);
+                } else {
+                    final WallObjectDespawned ev = new WallObjectDespawned();
+                    ev.setWallObject((WallObject) object);
+                    plugin.onWallObjectDespawned(ev);
+                }
+                break;
+            case GotrEvents.KIND_DECORATIVE:
+                if (spawned) {
+                    final DecorativeObjectSpawned ev = new DecorativeObjectSpawned();
+                    ev.setDecorativeObject((DecorativeObject) object);
+                    plugin.onDecorativeObjectSpawned(ev);
+                } else {
+                    final DecorativeObjectDespawned ev = new DecorativeObjectDespawned();
+                    ev.setDecorativeObject((DecorativeObject) object);
+                    plugin.onDecorativeObjectDespawned(ev);
+                }
+                break;
+        }
+    }
+
+    private Object tileObject(String kind, JsonObject e) {
+        final int id = e.get("id").getAsInt();
+        final WorldPoint wp = worldPoint(e);
+        final GotrReplayStubs.Answers answers = GotrReplayStubs.answers()
+                .on("getId", a -> id)
+                .on("getWorldLocation", a -> wp)
+                .on("getLocalLocation", a -> local(wp))
+                .on("getPlane", a -> wp.getPlane());
+        switch (kind) {
+            case GotrEvents.KIND_GROUND:
+                return GotrReplayStubs.stub(GroundObject.class, answers);
+            case GotrEvents.KIND_WALL:
+                return GotrReplayStubs.stub(WallObject.class, answers);
+            case GotrEvents.KIND_DECORATIVE:
+                return GotrReplayStubs.stub(DecorativeObject.class, answers);
+            default:
+                // Guardians animate while their altar is open; the recording says which ones were.
+                final DynamicObject renderable = GotrReplayStubs.stub(DynamicObject.class, GotrReplayStubs.answers()
+                        .on("getAnimation", a -> activeGuardianIds.contains(id) ? animation() : null));
+                answers.put("getRenderable", a -> renderable);
+                return GotrReplayStubs.stub(GameObject.class, answers);
+        }
+    }
+
+    private NPC npc(JsonObject e) {
+        return (NPC) objects.computeIfAbsent(key("npc", e), k -> {
+            final WorldPoint wp = worldPoint(e);
+            final String name = e.has("name") && !e.get("name").isJsonNull() ? e.get("name").getAsString() : null;
+            return GotrReplayStubs.stub(NPC.class, GotrReplayStubs.answers()
+                    .on("getId", a -> e.get("id").getAsInt())
+                    .on("getName", a -> name)
+                    .on("getWorldLocation", a -> wp)
+                    .on("getLocalLocation", a -> local(wp)));
+        });
+    }
+
+    private Client createClient() {
+        final Player player = GotrReplayStubs.stub(Player.class, GotrReplayStubs.answers()
+                .on("getWorldLocation", a -> playerWp)
+                .on("getLocalLocation", a -> local(playerWp))
+                .on("getName", a -> "replay"));
+        return GotrReplayStubs.stub(Client.class, GotrReplayStubs.answers()
+                .on("getGameState", a -> gameState)
+                .on("getMapRegions", a -> mapRegions)
+                .on("getBaseX", a -> baseX)
+                .on("getBaseY", a -> baseY)
+                .on("getPlane", a -> playerWp == null ? 0 : playerWp.getPlane())
+                .on("getLocalPlayer", a -> gameState == GameState.LOGGED_IN && playerWp != null ? player : null)
+                .on("getItemContainer", a -> inventory)
+                .on("getVarbitValue", a -> varbits.getOrDefault((Integer) a[0], 0))
+                .on("getWidget", a -> {
+                    if (a.length == 2) {
+                        return widgets.get((Integer) a[0] << 16 | (Integer) a[1]);
+                    }
+                    return a[0] instanceof Integer ? widgets.get(a[0]) : null;
+                }));
+    }
+
+    private GuardiansOfTheRiftHelperPlugin createPlugin() {
+        final Map<String, Object> overrides = new HashMap<>();
+        overrides.put("streamServer", false);
+        overrides.put("lowLatencyFlush", false);
+        overrides.put("recordSessions", false);
+        // payloadFields() asks the stream server for demand; ours always wants the replay mask
+        overrides.put("computeOnDemand", true);
+        final GuardiansOfTheRiftHelperConfig config = GotrReplayStubs.config(overrides);
+        final GotrJson json = new GotrJson(new Gson());
+        final GotrStreamServer demand = new GotrStreamServer(json, config) {
+            @Override
+            public boolean isRunning() {
+                return true;
+            }
+
+            @Override
+            public long demandedFields() {
+                return fields;
+            }
+        };
+        final GotrPayloadWorker worker = new GotrPayloadWorker();
+        worker.startInline(out::add);
+
+        // never started, so they take no payloads and report no consumers
+        final GotrSocketTransport socket = new GotrSocketTransport(json, demand, config);
+        final GotrSharedSnapshot snapshot = new GotrSharedSnapshot(json, demand, config);
+        return new GuardiansOfTheRiftHelperPlugin(client, config, clock, demand, worker, new GotrSessionRecorder(json, demand), socket, snapshot);
+    }
+
+    private Widget widget(int id, int spriteId, String text) {
+        return GotrReplayStubs.stub(Widget.class, GotrReplayStubs.answers()
+                .on("getId", a -> id)
+                .on("getSpriteId", a -> spriteId)
+                .on("getText", a -> text)
+                .on("isHidden", a -> false));
+    }
+
+    private static Animation animation() {
+        return GotrReplayStubs.stub(Animation.class, GotrReplayStubs.answers()
+                .on("getId", a -> GUARDIAN_ACTIVE_ANIM));
+    }
+
+    private LocalPoint local(WorldPoint wp) {
+        if (wp == null) return null;
+        return new LocalPoint(((wp.getX() - baseX) << 7) + 64, ((wp.getY() - baseY) << 7) + 64);
+    }
+
+    private static WorldPoint worldPoint(JsonObject e) {
+        return e.has("x") ? new WorldPoint(e.get("x").getAsInt(), e.get("y").getAsInt(), e.get("plane").getAsInt()) : null;
+    }
+
+    private static String names(long mask) {
+        final StringJoiner names = new StringJoiner(", ");
+        for (GotrField f : GotrField.all()) {
+            if (f.in(mask)) {
+                names.add(f.jsonName());
+            }
+        }
+        return names.toString();
+    }
+
+    private static String key(String kind, JsonObject e) {
+        return kind + ':' + e.get("id").getAsInt() + ':' + (e.has("x") ? e.get("x").getAsInt() + ":" + e.get("y").getAsInt() + ":" + e.get("plane").getAsInt() : "");
+    }
+
+    // ---- inputs ----
+
+    /** The raw events of a recorded session, each tagged with its wall time as "t". */
+    public static List<JsonObject> readSession(Path segment) throws IOException {
+        final List<JsonObject> events = new ArrayList<>();
+        for (GotrSessionSegment.Record r : GotrSessionSegment.read(segment)) {
+            if (r.getType() != GotrSessionSegment.TYPE_EVENT) continue;
+            final JsonObject e = JsonParser.parseString(new String(r.getData(), StandardCharsets.UTF_8)).getAsJsonObject();
+            e.addProperty("t", r.getWallMs());
+            events.add(e);
+        }
+        return events;
+    }
+
+    /** The payloads published while the session was recorded, for comparison with a replay. */
+    public static List<GotrBinaryCodec.Frame> readRecordedPayloads(Path segment) throws IOException {
+        final List<GotrBinaryCodec.Frame> frames = new ArrayList<>();
+        for (GotrSessionSegment.Record r : GotrSessionSegment.read(segment)) {
+            if (r.getType() == GotrSessionSegment.TYPE_PAYLOAD) {
+                frames.add(GotrBinaryCodec.decode(r.getData()));
+            }
+        }
+        return frames;
+    }
+
+    /** A JSON array of events, or a single payload in the test.json shape. */
+    public static List<JsonObject> readJson(Path file) throws IOException {
+        final JsonElement root = JsonParser.parseString(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        if (root.isJsonObject()) {
+            return fromPayload(root.getAsJsonObject());
+        }
+        final List<JsonObject> events = new ArrayList<>();
+        for (JsonElement e : root.getAsJsonArray()) {
+            events.add(e.getAsJsonObject());
+        }
+        return events;
+    }
+
+    private static final String[] GAME_TARGETS = {
+            "hugeGuardian", "largeGuardian", "unchargedCellTable", "depositPool", "catalyticEssencePile",
+            "elementalEssencePile", "portal", "returnPortal", "workbench", "barrier", "rubbleTop",
+            "rubbleBottom", "currentAltar", "altarPortal", "bankChest"
+    };
+
+    // Rebuilds the events behind one published payload: a tick to enter the region, the spawns
+    // and inventory, then the tick that publishes.
+    static List<JsonObject> fromPayload(JsonObject p) {
+        final long t = p.has("ts") ? p.get("ts").getAsLong() : 0;
+        final List<JsonObject> events = new ArrayList<>();
+        final JsonObject tick = new JsonObject();
+        tick.addProperty("e", GotrEvents.E_TICK);
+        tick.addProperty("t", t - TICK_MS);
+        tick.addProperty("inMinigame", p.has("isInMinigame") && p.get("isInMinigame").getAsBoolean());
+        final JsonArray active = new JsonArray();
+        boolean inMain = false;
+        if (p.has("player") && p.get("player").isJsonObject()) {
+            final JsonObject pl = p.getAsJsonObject("player");
+            tick.addProperty("x", pl.get("worldX").getAsInt());
+            tick.addProperty("y", pl.get("worldY").getAsInt());
+            tick.addProperty("plane", pl.get("plane").getAsInt());
+            inMain = new WorldPoint(pl.get("worldX").getAsInt(), pl.get("worldY").getAsInt(), 0).getRegionID() == MAIN_REGION;
+        }
+        tick.addProperty("inMainRegion", inMain);
+        tick.add("activeGuardians", new JsonArray());
+        events.add(tick);
+
+        for (String name : GAME_TARGETS) {
+            if (p.has(name) && p.get(name).isJsonObject()) {
+                events.add(spawn(GotrEvents.KIND_GAME, p.getAsJsonObject(name), t));
+            }
+        }
+        if (p.has("activeGuardians") && p.get("activeGuardians").isJsonArray()) {
+            for (JsonElement g : p.getAsJsonArray("activeGuardians")) {
+                events.add(spawn(GotrEvents.KIND_GAME, g.getAsJsonObject(), t));
+                active.add(g.getAsJsonObject().get("id").getAsInt());
+            }
+        }
+        if (p.has("cellTiles") && p.get("cellTiles").isJsonArray()) {
+            for (JsonElement c : p.getAsJsonArray("cellTiles")) {
+                events.add(spawn(GotrEvents.KIND_GROUND, c.getAsJsonObject(), t));
+            }
+        }
+        for (String name : new String[]{"greatGuardian", "apprentice"}) {
+            if (p.has(name) && p.get(name).isJsonObject()) {
+                final JsonObject n = p.getAsJsonObject(name);
+                final JsonObject e = new JsonObject();
+                e.addProperty("e", GotrEvents.E_NPC_SPAWNED);
+                e.addProperty("t", t);
+                e.addProperty("id", n.get("id").getAsInt());
+                e.add("name", n.get("name"));
+                e.addProperty("x", n.get("worldX").getAsInt());
+                e.addProperty("y", n.get("worldY").getAsInt());
+                e.addProperty("plane", n.get("plane").getAsInt());
+                events.add(e);
+            }
+        }
+        if (p.has("inv") && p.get("inv").isJsonObject()) {
+            final JsonObject inv = GotrEvents.inventory(inventoryOf(p.getAsJsonObject("inv")));
+            inv.addProperty("t", t);
+            events.add(inv);
+        }
+
+        final JsonObject publish = tick.deepCopy();
+        publish.addProperty("t", t);
+        publish.add("activeGuardians", active);
+        events.add(publish);
+        return events;
+    }
+
+    private static JsonObject spawn(String kind, JsonObject target, long t) {
+        final JsonObject e = new JsonObject();
+        e.addProperty("e", GotrEvents.E_OBJECT_SPAWNED);
+        e.addProperty("t", t);
+        e.addProperty("kind", kind);
+        e.addProperty("id", target.get("id").getAsInt());
+        e.addProperty("x", target.get("worldX").getAsInt());
+        e.addProperty("y", target.get("worldY").getAsInt());
+        e.addProperty("plane", target.get("plane").getAsInt());
+        return e;
+    }
+
+    // A 28 slot inventory with the counts the summary reports.
+    private static Item[] inventoryOf(JsonObject inv) {
+        final List<Item> slots = new ArrayList<>();
+        if (inv.has("colossalPouch") && inv.get("colossalPouch").isJsonObject()) {
+            slots.add(new Item(inv.getAsJsonObject("colossalPouch").get("itemId").getAsInt(), 1));
+        }
+        if (inv.has("talismans") && inv.get("talismans").isJsonArray()) {
+            for (JsonElement s : inv.getAsJsonArray("talismans")) {
+                slots.add(new Item(s.getAsJsonObject().get("itemId").getAsInt(), 1));
+            }
+        }
+        if (inv.has("fragments") && inv.get("fragments").getAsInt() > 0) {
+            slots.add(new Item(ItemID.GUARDIAN_FRAGMENTS, inv.get("fragments").getAsInt()));
+        }
+        if (inv.has("unchargedCells") && inv.get("unchargedCells").getAsInt() > 0) {
+            slots.add(new Item(UNCHARGED_CELL_ITEM_ID, inv.get("unchargedCells").getAsInt()));
+        }
+        final int essence = inv.has("essence") ? inv.get("essence").getAsInt() : 0;
+        for (int i = 0; i < essence && slots.size() < 28; i++) {
+            slots.add(new Item(ItemID.GUARDIAN_ESSENCE, 1));
+        }
+        while (slots.size() < 28) {
+            slots.add(new Item(-1, 0));
+        }
+        return slots.toArray(new Item[0]);
+    }
+
+    // ---- comparison ----
+
+    /** Differences in the state (not geometry) between a recorded and a replayed payload. */
+    public static List<String> diff(GotrBinaryCodec.Frame recorded, GotrPayload replayed) {
+        final List<String> d = new ArrayList<>();
+        check(d, "isInMinigame", recorded.isInMinigame(), replayed.isInMinigame());
+        check(d, "hasAnyRunes", recorded.isHasAnyRunes(), replayed.isHasAnyRunes());
+        check(d, "hasAnyGuardianEssence", recorded.isHasAnyGuardianEssence(), replayed.isHasAnyGuardianEssence());
+        check(d, "hasAnyChargedCells", recorded.isHasAnyChargedCells(), replayed.isHasAnyChargedCells());
+        check(d, "hasAnyStones", recorded.isHasAnyStones(), replayed.isHasAnyStones());
+        check(d, "isFirstPortal", recorded.isFirstPortal(), replayed.isFirstPortal());
+        check(d, "rewardReceived", recorded.isRewardReceived(), replayed.isRewardReceived());
+        check(d, "guardianEnergy", recorded.getGuardianEnergy(), replayed.getGuardianEnergy());
+        check(d, "pointBalance", recorded.getPointBalance(), replayed.getPointBalance());
+        if (recorded.getActiveGuardianMask() != 0) {
+            check(d, "activeGuardianMask", recorded.getActiveGuardianMask(), replayed.getActiveGuardianMask());
+        }
+        checkTime(d, "portalSpawnTime", recorded.getPortalSpawnTime(), replayed.getPortalSpawnTime());
+        checkTime(d, "lastPortalDespawnTime", recorded.getLastPortalDespawnTime(), replayed.getLastPortalDespawnTime());
+        checkTime(d, "nextGameStart", recorded.getNextGameStart(), replayed.getNextGameStart());
+        checkTime(d, "gameStarted", recorded.getGameStarted(), replayed.getGameStarted());
+        return d;
+    }
+
+    // Live times were taken a little after the event was recorded, so allow up to one tick.
+    private static void checkTime(List<String> d, String name, Instant recorded, Instant replayed) {
+        if (recorded == null || replayed == null
+                ? recorded != replayed
+                : Math.abs(recorded.toEpochMilli() - replayed.toEpochMilli()) >= TICK_MS) {
+            d.add(name + ": recorded " + recorded + ", replayed " + replayed);
+        }
+    }
+
+    private static void check(List<String> d, String name, Object recorded, Object replayed) {
+        if (!Objects.equals(recorded, replayed)) {
+            d.add(name + ": recorded " + recorded + ", replayed " + replayed);
+        }
+    }
+
+    /** A clock the replay moves by hand. */
+    private static final class ReplayClock extends Clock {
+        long millis;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package net.runelite.client.plugins.gotr;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GotrReplayEngineTest {
+    private static final int WATER = 1 << GuardianInfo.indexOfGameObject(GuardianInfo.WATER.gameObjectId);
+
+    @Test
+    public void replaysTestPayload() throws IOException {
+        final List<GotrPayload> payloads = new GotrReplayEngine().replay(GotrReplayEngine.readJson(Paths.get("test.json")));
+
+        // the tick entering the rift, then the tick after the spawns and inventory
+        assertEquals(2, payloads.size());
+        assertSequence(payloads);
+        assertEquals(1757253922635L - 600, payloads.get(0).getTs());
+        assertEquals(0, payloads.get(0).getActiveGuardianMask());
+        assertFalse(payloads.get(0).isHasAnyGuardianEssence());
+
+        final GotrPayload last = payloads.get(1);
+        assertEquals(1757253922635L, last.getTs());
+        assertTrue(last.isInMinigame());
+        assertEquals(WATER, last.getActiveGuardianMask());
+        assertTrue(last.isHasAnyGuardianEssence());
+        assertFalse(last.isHasAnyRunes());
+        assertEquals(Integer.valueOf(-1), last.getGuardianEnergy());
+    }
+
+    @Test
+    public void replaysRecordedSession() throws IOException {
+        final List<GotrPayload> payloads = new GotrReplayEngine().replay(GotrReplayEngine.readJson(Paths.get("test", "replay-session.json")));
+
+        assertEquals(3, payloads.size());
+        assertSequence(payloads);
+
+        final GotrPayload entered = payloads.get(0);
+        assertEquals(1000, entered.getTs());
+        assertTrue(entered.isInMinigame());
+        assertEquals(0, entered.getActiveGuardianMask());
+        assertFalse(entered.isHasAnyGuardianEssence());
+        assertEquals(Integer.valueOf(25), entered.getGuardianEnergy());
+        assertNull(entered.getPortalSpawnTime());
+
+        final GotrPayload portal = payloads.get(1);
+        assertEquals(1600, portal.getTs());
+        assertEquals(WATER, portal.getActiveGuardianMask());
+        assertTrue(portal.isHasAnyGuardianEssence());
+        assertEquals(Instant.ofEpochMilli(1600), portal.getPortalSpawnTime());
+        assertNull(portal.getLastPortalDespawnTime());
+
+        final GotrPayload closed = payloads.get(2);
+        assertEquals(2200, closed.getTs());
+        assertEquals(0, closed.getActiveGuardianMask());
+        assertEquals(Integer.valueOf(40), closed.getGuardianEnergy());
+        assertNull(closed.getPortalSpawnTime());
+        assertEquals(Instant.ofEpochMilli(2200), closed.getLastPortalDespawnTime());
+    }
+
+    @Test
+    public void replaysAreIndependent() throws IOException {
+        final List<GotrPayload> first = new GotrReplayEngine().replay(GotrReplayEngine.readJson(Paths.get("test", "replay-session.json")));
+        final List<GotrPayload> second = new GotrReplayEngine().replay(GotrReplayEngine.readJson(Paths.get("test", "replay-session.json")));
+
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getSeq(), second.get(i).getSeq());
+            assertEquals(first.get(i).getPortalSpawnTime(), second.get(i).getPortalSpawnTime());
+            assertEquals(first.get(i).getActiveGuardianMask(), second.get(i).getActiveGuardianMask());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFieldsItCannotBuild() {
+        new GotrReplayEngine(GotrReplayEngine.DEFAULT_FIELDS | GotrField.INV.bit());
+    }
+
+    private static void assertSequence(List<GotrPayload> payloads) {
+        for (int i = 0; i < payloads.size(); i++) {
+            assertEquals(i + 1, payloads.get(i).getSeq());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package net.runelite.client.plugins.gotr;
+
+import net.runelite.client.config.Notification;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Dynamic-proxy stand-ins for RuneLite API interfaces used by {@link GotrReplayEngine}.
+ *
+ * Unlisted methods answer a neutral value: 0/false for primitives, "" for strings, an empty array,
+ * null for other classes and a further stub for interface return types, so deep call chains into
+ * the API do not fall over on null.
+ */
+final class GotrReplayStubs {
+    private GotrReplayStubs() {}
+
+    /** Stub of iface; answers maps method names to their implementation. */
+    static <T> T stub(Class<T> iface, Map<String, Function<Object[], Object>> answers) {
+        final Map<Class<?>, Object> nested = new HashMap<>();
+        final InvocationHandler handler = (proxy, method, args) -> {
+            final Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args == null ? new Object[0] : args);
+            }
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "stub " + iface.getSimpleName();
+            }
+            return neutral(method, nested);
+        };
+        return iface.cast(Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[]{iface}, handler));
+    }
+
+    static Answers answers() {
+        return new Answers();
+    }
+
+    /** Method name to implementation; args are never null. */
+    static final class Answers extends HashMap<String, Function<Object[], Object>> {
+        Answers on(String method, Function<Object[], Object> answer) {
+            put(method, answer);
+            return this;
+        }
+    }
+
+    /**
+     * A config whose items return their declared defaults, with every notification off so the
+     * replay never reaches the Notifier. overrides maps keyName-less method names to values.
+     */
+    static GuardiansOfTheRiftHelperConfig config(Map<String, Object> overrides) {
+        final InvocationHandler handler = (proxy, method, args) -> {
+            if (overrides.containsKey(method.getName())) {
+                return overrides.get(method.getName());
+            }
+            if (method.getReturnType() == Notification.class) {
+                return Notification.OFF;
+            }
+            if (method.isDefault()) {
+                return MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup())
+                        .unreflectSpecial(method, method.getDeclaringClass())
+                        .bindTo(proxy)
+                        .invokeWithArguments(args == null ? new Object[0] : args);
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            return method.getName().equals("toString") ? "replay config" : null;
+        };
+        return (GuardiansOfTheRiftHelperConfig) Proxy.newProxyInstance(
+                GuardiansOfTheRiftHelperConfig.class.getClassLoader(),
+                new Class<?>[]{GuardiansOfTheRiftHelperConfig.class},
+                handler);
+    }
+
+    private static Object neutral(Method method, Map<Class<?>, Object> nested) {
+        final Class<?> type = method.getReturnType();
+        if (type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return (char) 0;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        if (type == String.class) return "";
+        if (type.isArray()) return java.lang.reflect.Array.newInstance(type.getComponentType(), 0);
+        if (type.isInterface()) {
+            return nested.computeIfAbsent(type, t -> stub(t, answers()));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package net.runelite.client.plugins.gotr;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line front end to {@link GotrReplayEngine}: replays the given files and writes one JSON
+ * payload per line to stdout (or --out=file). Session segments are also compared with the
+ * payloads recorded alongside them.
+ * Usage: GotrReplayTool [--fields=a,b] [--out=file] input...
+ */
+public class GotrReplayTool {
+    public static void main(String[] args) throws IOException {
+        long fields = GotrReplayEngine.DEFAULT_FIELDS;
+        Path outPath = null;
+        final List<Path> inputs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--fields=")) fields = GotrField.parse(arg.substring("--fields=".length()));
+            else if (arg.startsWith("--out=")) outPath = Paths.get(arg.substring("--out=".length()));
+            else inputs.add(Paths.get(arg));
+        }
+
+        final List<JsonObject> events = new ArrayList<>();
+        final List<GotrBinaryCodec.Frame> recorded = new ArrayList<>();
+        for (Path in : inputs) {
+            if (in.getFileName().toString().endsWith(".gotr")) {
+                events.addAll(GotrReplayEngine.readSession(in));
+                recorded.addAll(GotrReplayEngine.readRecordedPayloads(in));
+            } else {
+                events.addAll(GotrReplayEngine.readJson(in));
+            }
+        }
+
+        final long start = System.nanoTime();
+        final List<GotrPayload> payloads = new GotrReplayEngine(fields).replay(events);
+        final long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        final GotrJson json = new GotrJson(new Gson());
+        try (PrintStream ps = outPath == null ? System.out : new PrintStream(Files.newOutputStream(outPath), false, "UTF-8")) {
+            for (GotrPayload p : payloads) {
+                ps.println(json.gson().toJson(json.toTree(p)));
+            }
+        }
+
+        // Pair each recorded payload with the last replayed one built at or before it.
+        int mismatched = 0;
+        int r = -1;
+        for (GotrBinaryCodec.Frame frame : recorded) {
+            while (r + 1 < payloads.size() && payloads.get(r + 1).getTs() <= frame.getTs()) r++;
+            if (r < 0) continue;
+            final List<String> d = GotrReplayEngine.diff(frame, payloads.get(r));
+            if (!d.isEmpty()) {
+                mismatched++;
+                System.err.println("payload " + frame.getSeq() + ": " + String.join("; ", d));
+            }
+        }
+        System.err.printf("replayed %d events into %d payloads in %d ms%n", events.size(), payloads.size(), elapsedMs);
+        if (!recorded.isEmpty()) {
+            System.err.printf("%d recorded payloads, %d differ%n", recorded.size(), mismatched);
+        }
+    }
+}